@@ -0,0 +1,145 @@
+package com.api.rest.benchmark;
+
+import com.api.rest.PruebasUnitariasSpringBootApplication;
+import com.api.rest.dto.ResultadoLoteEmpleado;
+import com.api.rest.model.Empleado;
+import com.api.rest.repository.EmpleadoRepository;
+import com.api.rest.service.EmpleadoService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//caminos calientes del servicio y del repositorio contra H2 embebido con distintos tamaños de tabla
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmpleadoServiceBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int tamanoTabla;
+
+    private ConfigurableApplicationContext contexto;
+    private EmpleadoService empleadoService;
+    private EmpleadoRepository empleadoRepository;
+    private final AtomicLong secuenciaEmail = new AtomicLong();
+    private long idMinimo;
+    private long idMaximo;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = new SpringApplicationBuilder(PruebasUnitariasSpringBootApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:jmh" + tamanoTabla,
+                        "--spring.jpa.open-in-view=false",
+                        "--logging.level.root=WARN");
+        empleadoService = contexto.getBean(EmpleadoService.class);
+        empleadoRepository = contexto.getBean(EmpleadoRepository.class);
+
+        idMinimo = Long.MAX_VALUE;
+        idMaximo = Long.MIN_VALUE;
+        for (int inicio = 0; inicio < tamanoTabla; inicio += 10_000) {
+            List<Empleado> lote = new ArrayList<>();
+            for (int i = inicio; i < Math.min(inicio + 10_000, tamanoTabla); i++) {
+                lote.add(Empleado.builder()
+                        .nombre("Nombre" + i)
+                        .apellido("Apellido" + i)
+                        .email("semilla" + i + "@email.com")
+                        .build());
+            }
+            for (ResultadoLoteEmpleado resultado : empleadoService.saveEmpleados(lote)) {
+                idMinimo = Math.min(idMinimo, resultado.getId());
+                idMaximo = Math.max(idMaximo, resultado.getId());
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    private long idAleatorio() {
+        return ThreadLocalRandom.current().nextLong(idMinimo, idMaximo + 1);
+    }
+
+    //altas de saveEmpleado; se borran al final de cada iteracion para que la tabla vuelva a tamanoTabla
+    //y el parametro siga describiendo lo que se mide
+    @State(Scope.Benchmark)
+    public static class Altas {
+
+        private final Queue<Long> ids = new ConcurrentLinkedQueue<>();
+
+        @TearDown(Level.Iteration)
+        public void borrar(EmpleadoServiceBenchmark benchmark) {
+            benchmark.empleadoService.deleteEmpleados(new ArrayList<>(ids));
+            ids.clear();
+        }
+    }
+
+    @Benchmark
+    public Empleado saveEmpleado(Altas altas) {
+        long n = secuenciaEmail.incrementAndGet();
+        Empleado guardado = empleadoService.saveEmpleado(Empleado.builder()
+                .nombre("Bench")
+                .apellido("Jmh")
+                .email("bench" + n + "@email.com")
+                .build());
+        altas.ids.add(guardado.getId());
+        return guardado;
+    }
+
+    //pasa por la cache del servicio
+    @Benchmark
+    public Optional<Empleado> getEmpleadoById() {
+        return empleadoService.getEmpleadoById(idAleatorio());
+    }
+
+    //sin la cache del servicio: lee de la cache de segundo nivel de Hibernate y solo va a la base de datos si falla
+    @Benchmark
+    public Optional<Empleado> findByIdRepositorio() {
+        return empleadoRepository.findById(idAleatorio());
+    }
+
+    //las mismas lecturas mientras otro hilo actualiza: cada escritura solo desaloja su propia entrada L2,
+    //la diferencia con findByIdRepositorio deberia limitarse a esos ids
+    @Benchmark
+    @Group("l2ConEscrituras")
+    @GroupThreads(3)
+    public Optional<Empleado> leerConEscrituras() {
+        return empleadoRepository.findById(idAleatorio());
+    }
+
+    @Benchmark
+    @Group("l2ConEscrituras")
+    @GroupThreads(1)
+    public int escribirConLecturas() {
+        return empleadoRepository.actualizar(idAleatorio(), null, "Bench" + secuenciaEmail.incrementAndGet(), null);
+    }
+
+    //pagina por cursor en una posicion aleatoria de la tabla: el coste no deberia crecer con el tamaño
+    @Benchmark
+    public List<Empleado> getEmpleadosPaginados() {
+        return empleadoService.getEmpleadosPaginados(idAleatorio(), 100);
+    }
+
+    //recorre la tabla completa: crece con el tamaño
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void exportarEmpleados(Blackhole blackhole) {
+        empleadoService.exportarEmpleados(blackhole::consume);
+    }
+}
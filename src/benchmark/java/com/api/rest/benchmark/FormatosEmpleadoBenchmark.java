@@ -0,0 +1,79 @@
+package com.api.rest.benchmark;
+
+import com.api.rest.model.Empleado;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+//JSON frente a CBOR y Smile para la lista de GET /api/empleados: tiempo de codificar/decodificar
+//y tamaño del payload (en bruto y con gzip) que se imprime al preparar cada combinacion
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormatosEmpleadoBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String formato;
+
+    @Param({"100", "1000"})
+    public int tamanoLista;
+
+    private ObjectWriter escritor;
+    private ObjectReader lector;
+    private List<Empleado> empleados;
+    private byte[] codificado;
+
+    @Setup
+    public void iniciar() throws Exception {
+        ObjectMapper objectMapper = switch (formato) {
+            case "cbor" -> new CBORMapper();
+            case "smile" -> new SmileMapper();
+            default -> new ObjectMapper();
+        };
+        escritor = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Empleado.class));
+        lector = objectMapper.readerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Empleado.class));
+        empleados = new ArrayList<>(tamanoLista);
+        for (int i = 0; i < tamanoLista; i++) {
+            empleados.add(Empleado.builder()
+                    .id((long) i)
+                    .nombre("Nombre" + i)
+                    .apellido("Apellido" + i)
+                    .email("empleado" + i + "@email.com")
+                    .version(0L)
+                    .build());
+        }
+        codificado = escritor.writeValueAsBytes(empleados);
+        System.out.printf("%nformato=%s tamanoLista=%d bytes=%d gzip=%d%n",
+                formato, tamanoLista, codificado.length, comprimir(codificado));
+    }
+
+    private static int comprimir(byte[] datos) throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(datos);
+        }
+        return salida.size();
+    }
+
+    @Benchmark
+    public byte[] codificar() throws Exception {
+        return escritor.writeValueAsBytes(empleados);
+    }
+
+    @Benchmark
+    public List<Empleado> decodificar() throws Exception {
+        return lector.readValue(codificado);
+    }
+}
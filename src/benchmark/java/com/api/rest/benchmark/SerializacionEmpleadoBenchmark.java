@@ -0,0 +1,60 @@
+package com.api.rest.benchmark;
+
+import com.api.rest.model.Empleado;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//coste de serializar con Jackson un Empleado y listas de distintos tamaños
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacionEmpleadoBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int tamanoLista;
+
+    private ObjectWriter escritorEmpleado;
+    private ObjectWriter escritorLista;
+    private Empleado empleado;
+    private List<Empleado> empleados;
+
+    @Setup
+    public void iniciar() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        escritorEmpleado = objectMapper.writerFor(Empleado.class);
+        escritorLista = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Empleado.class));
+        empleado = crear(1);
+        empleados = new ArrayList<>(tamanoLista);
+        for (int i = 0; i < tamanoLista; i++) {
+            empleados.add(crear(i));
+        }
+    }
+
+    private static Empleado crear(int i) {
+        return Empleado.builder()
+                .id((long) i)
+                .nombre("Nombre" + i)
+                .apellido("Apellido" + i)
+                .email("empleado" + i + "@email.com")
+                .version(0L)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serializarEmpleado() throws Exception {
+        return escritorEmpleado.writeValueAsBytes(empleado);
+    }
+
+    @Benchmark
+    public byte[] serializarLista() throws Exception {
+        return escritorLista.writeValueAsBytes(empleados);
+    }
+}
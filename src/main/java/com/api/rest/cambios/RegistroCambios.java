@@ -0,0 +1,208 @@
+package com.api.rest.cambios;
+
+import com.api.rest.dto.CambioEmpleado;
+import com.api.rest.exception.CambiosCaducadosException;
+import com.api.rest.model.Empleado;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//registro ordenado de altas, modificaciones y bajas para que los clientes sincronicen solo lo que cambio;
+//se guardan los ultimos N cambios en un anillo y la secuencia vuelve a empezar en 1 al reiniciar la aplicacion
+@Slf4j
+@Component
+public class RegistroCambios implements MeterBinder {
+
+    private static final int LOTE_ENVIO = 500;
+
+    //envios agrupa los avisos: como mucho una tarea por suscriptor en cola o en marcha,
+    //y ultimaEnviada solo la escribe esa tarea
+    private static final class Suscriptor {
+        private final SseEmitter emisor;
+        private final AtomicInteger avisos = new AtomicInteger();
+        private volatile long ultimaEnviada;
+        //nanoTime del ultimo lote enviado o de cuando empezo su tarea
+        private volatile long ultimoProgreso = System.nanoTime();
+        private volatile boolean descartado;
+
+        private Suscriptor(SseEmitter emisor, long ultimaEnviada) {
+            this.emisor = emisor;
+            this.ultimaEnviada = ultimaEnviada;
+        }
+    }
+
+    private final CambioEmpleado[] anillo;
+    private final long tiempoMaximoSse;
+    private final long tiempoMaximoEnvioNanos;
+    private long ultimaSecuencia;
+
+    private final List<Suscriptor> suscriptores = new CopyOnWriteArrayList<>();
+    //pocos hilos para todos los suscriptores; la cola no pasa de una tarea por suscriptor. Cada tarea envia un lote
+    //y vuelve a la cola, asi un cliente muy atrasado no acapara un hilo. Un envio bloqueado retiene su hilo hasta el
+    //timeout de escritura del contenedor (server.tomcat.connection-timeout); mientras, el suscriptor se descarta
+    //en cuanto lleva mas de tiempo-maximo-envio sin avanzar y los demas siguen con el resto de hilos
+    private final ExecutorService envios;
+
+    public RegistroCambios(@Value("${empleados.cambios.capacidad:10000}") int capacidad,
+                           @Value("${empleados.cambios.tiempo-maximo-sse:30m}") Duration tiempoMaximoSse,
+                           @Value("${empleados.cambios.hilos-envio:4}") int hilosEnvio,
+                           @Value("${empleados.cambios.tiempo-maximo-envio:10s}") Duration tiempoMaximoEnvio) {
+        this.anillo = new CambioEmpleado[capacidad];
+        this.tiempoMaximoSse = tiempoMaximoSse.toMillis();
+        this.tiempoMaximoEnvioNanos = tiempoMaximoEnvio.toNanos();
+        this.envios = Executors.newFixedThreadPool(hilosEnvio, new ThreadFactory() {
+            private final AtomicInteger hilos = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable tarea) {
+                Thread hilo = new Thread(tarea, "cambios-sse-" + hilos.incrementAndGet());
+                hilo.setDaemon(true);
+                return hilo;
+            }
+        });
+    }
+
+    //se llama despues del commit; empleado es nulo en las bajas
+    public void publicar(CambioEmpleado.Tipo tipo, long id, Empleado empleado) {
+        synchronized (this) {
+            long secuencia = ++ultimaSecuencia;
+            anillo[(int) (secuencia % anillo.length)] = new CambioEmpleado(secuencia, tipo, id,
+                    empleado != null ? empleado.copia() : null, Instant.now());
+        }
+        //no se envia el cambio concreto: cada suscriptor lee del anillo desde lo ultimo que recibio,
+        //asi dos publicaciones concurrentes nunca llegan desordenadas
+        suscriptores.forEach(this::avisar);
+    }
+
+    //cambios con secuencia mayor que la indicada, como mucho limite
+    public synchronized List<CambioEmpleado> desde(long secuencia, int limite) {
+        if (secuencia > ultimaSecuencia) {
+            throw new CambiosCaducadosException("Secuencia " + secuencia + " posterior a la ultima publicada ("
+                    + ultimaSecuencia + "), la aplicacion se ha reiniciado");
+        }
+        long primeraRetenida = Math.max(1, ultimaSecuencia - anillo.length + 1);
+        if (secuencia + 1 < primeraRetenida) {
+            throw new CambiosCaducadosException("Los cambios posteriores a " + secuencia
+                    + " ya no estan retenidos, primera secuencia disponible:" + primeraRetenida);
+        }
+        int total = (int) Math.min(limite, ultimaSecuencia - secuencia);
+        List<CambioEmpleado> cambios = new ArrayList<>(total);
+        for (long actual = secuencia + 1; actual <= secuencia + total; actual++) {
+            cambios.add(anillo[(int) (actual % anillo.length)]);
+        }
+        return cambios;
+    }
+
+    public synchronized long getUltimaSecuencia() {
+        return ultimaSecuencia;
+    }
+
+    public SseEmitter suscribir(long secuencia) {
+        //se valida antes de abrir el stream para poder responder 410
+        desde(secuencia, 0);
+        SseEmitter emisor = new SseEmitter(tiempoMaximoSse);
+        registrar(emisor, secuencia);
+        return emisor;
+    }
+
+    void registrar(SseEmitter emisor, long secuencia) {
+        Suscriptor suscriptor = new Suscriptor(emisor, secuencia);
+        emisor.onCompletion(() -> suscriptores.remove(suscriptor));
+        emisor.onError(error -> suscriptores.remove(suscriptor));
+        //se registra antes de enviar lo pendiente: cualquier cambio posterior dispara otro envio
+        suscriptores.add(suscriptor);
+        avisar(suscriptor);
+    }
+
+    //el primer aviso lanza la tarea; los que llegan mientras envia solo hacen que repita una vuelta mas
+    private void avisar(Suscriptor suscriptor) {
+        if (suscriptor.avisos.getAndIncrement() == 0) {
+            ejecutar(suscriptor);
+        } else if (System.nanoTime() - suscriptor.ultimoProgreso > tiempoMaximoEnvioNanos
+                && suscriptores.remove(suscriptor)) {
+            //no se cierra aqui: complete() esperaria al envio bloqueado en el hilo que publica.
+            //Deja de recibir avisos y su tarea lo cierra cuando se desbloquee
+            suscriptor.descartado = true;
+            log.debug("Suscriptor de cambios descartado: mas de {} ms sin avanzar", tiempoMaximoEnvioNanos / 1_000_000);
+        }
+    }
+
+    private void ejecutar(Suscriptor suscriptor) {
+        try {
+            envios.execute(() -> atender(suscriptor));
+        } catch (RejectedExecutionException e) {
+            //la aplicacion se esta cerrando: cerrar() completa los streams
+            log.debug("Aviso de cambios descartado durante el cierre", e);
+        }
+    }
+
+    private void atender(Suscriptor suscriptor) {
+        int atendidos = suscriptor.avisos.get();
+        suscriptor.ultimoProgreso = System.nanoTime();
+        boolean alDia = enviarLote(suscriptor);
+        if (suscriptor.avisos.addAndGet(-atendidos) != 0) {
+            //llegaron avisos durante el envio y la tarea sigue siendo de este suscriptor
+            ejecutar(suscriptor);
+        } else if (!alDia) {
+            avisar(suscriptor);
+        }
+    }
+
+    //true si ya no queda nada que enviar a este suscriptor
+    private boolean enviarLote(Suscriptor suscriptor) {
+        try {
+            if (suscriptor.descartado) {
+                suscriptor.emisor.complete();
+                return true;
+            }
+            List<CambioEmpleado> pendientes = desde(suscriptor.ultimaEnviada, LOTE_ENVIO);
+            for (CambioEmpleado cambio : pendientes) {
+                //el id del evento permite reconectar con Last-Event-ID sin perder cambios
+                suscriptor.emisor.send(SseEmitter.event()
+                        .id(Long.toString(cambio.getSecuencia()))
+                        .data(cambio));
+                suscriptor.ultimaEnviada = cambio.getSecuencia();
+            }
+            suscriptor.ultimoProgreso = System.nanoTime();
+            return pendientes.size() < LOTE_ENVIO;
+        } catch (CambiosCaducadosException e) {
+            //el cliente se quedo atras mas que la retencion: al reconectar recibira 410
+            suscriptores.remove(suscriptor);
+            suscriptor.emisor.complete();
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Suscriptor de cambios desconectado", e);
+            suscriptores.remove(suscriptor);
+            suscriptor.emisor.completeWithError(e);
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        envios.shutdownNow();
+        suscriptores.forEach(suscriptor -> suscriptor.emisor.complete());
+        suscriptores.clear();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("empleados.cambios.suscriptores", suscriptores, List::size).register(registry);
+    }
+}
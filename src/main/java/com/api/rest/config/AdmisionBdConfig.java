@@ -0,0 +1,35 @@
+package com.api.rest.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+//envuelve el DataSource del pool para limitar cuantas conexiones se usan a la vez (ver DataSourceConAdmision)
+@Configuration
+@ConditionalOnProperty(name = "empleados.admision.concurrencia.habilitada", havingValue = "true", matchIfMissing = true)
+public class AdmisionBdConfig {
+
+    //static: los BeanPostProcessor se crean antes que el resto de beans
+    @Bean
+    public static BeanPostProcessor dataSourceConAdmision(Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof DataSourceConAdmision) {
+                    return bean;
+                }
+                int permisos = environment.getProperty("empleados.bd.permisos-concurrentes", Integer.class,
+                        environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+                Duration espera = environment.getProperty("empleados.bd.espera-permiso", Duration.class, Duration.ofSeconds(2));
+                return new DataSourceConAdmision(dataSource, permisos, espera.toMillis(), meterRegistry);
+            }
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.api.rest.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+//Hibernate pasa por aqui cada SQL antes de prepararlo; se cuentan por hilo para medir sentencias por peticion
+//se registra con spring.jpa.properties.hibernate.session_factory.statement_inspector
+public class ContadorSentencias implements StatementInspector {
+
+    private static final ThreadLocal<int[]> SENTENCIAS = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        SENTENCIAS.get()[0]++;
+        return sql;
+    }
+
+    public static void reiniciar() {
+        SENTENCIAS.get()[0] = 0;
+    }
+
+    //devuelve las sentencias contadas desde el ultimo reinicio y libera el ThreadLocal
+    public static int recoger() {
+        int sentencias = SENTENCIAS.get()[0];
+        SENTENCIAS.remove();
+        return sentencias;
+    }
+}
@@ -0,0 +1,106 @@
+package com.api.rest.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//control de admision sobre el trabajo real en base de datos: cada conexion prestada ocupa un permiso hasta que
+//se cierra, tambien las que sostienen una exportacion en streaming. Las peticiones que no llegan a la base de datos
+//(cache, 304, busqueda, /count, repeticiones idempotentes) no compiten por permisos.
+//Si no hay permiso tras la espera se lanza SQLTransientConnectionException y la API responde 503 con Retry-After
+public class DataSourceConAdmision extends DelegatingDataSource {
+
+    private final Semaphore permisos;
+    private final long esperaMaximaMs;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public DataSourceConAdmision(DataSource dataSource, int permisosConcurrentes, long esperaMaximaMs,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        super(dataSource);
+        this.permisos = new Semaphore(permisosConcurrentes, true);
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        adquirir();
+        try {
+            return liberarAlCerrar(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        adquirir();
+        try {
+            return liberarAlCerrar(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+    }
+
+    public int getPermisosDisponibles() {
+        return permisos.availablePermits();
+    }
+
+    private void adquirir() throws SQLException {
+        boolean adquirido;
+        try {
+            adquirido = permisos.tryAcquire(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            adquirido = false;
+        }
+        boolean admitida = adquirido;
+        meterRegistry.ifAvailable(registry -> registry.counter("empleados.admision",
+                "clase", "bd", "resultado", admitida ? "admitida" : "rechazada").increment());
+        if (!adquirido) {
+            //SQLState 08: Hibernate y Spring lo tratan como fallo de conexion
+            throw new SQLTransientConnectionException("Base de datos saturada: sin permiso tras " + esperaMaximaMs + "ms", "08001");
+        }
+    }
+
+    //el permiso se devuelve una sola vez, al cerrar la conexion (devolverla al pool)
+    private Connection liberarAlCerrar(Connection conexion) {
+        AtomicBoolean cerrada = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, metodo, argumentos) -> {
+                    if ("close".equals(metodo.getName())) {
+                        //un segundo close no llega al pool: la conexion ya podria estar prestada a otro hilo
+                        if (cerrada.compareAndSet(false, true)) {
+                            try {
+                                conexion.close();
+                            } finally {
+                                permisos.release();
+                            }
+                        }
+                        return null;
+                    }
+                    if ("unwrap".equals(metodo.getName()) || "isWrapperFor".equals(metodo.getName())) {
+                        if (((Class<?>) argumentos[0]).isInstance(proxy)) {
+                            return "unwrap".equals(metodo.getName()) ? proxy : true;
+                        }
+                    }
+                    try {
+                        return metodo.invoke(conexion, argumentos);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
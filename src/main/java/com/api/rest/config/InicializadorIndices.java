@@ -0,0 +1,41 @@
+package com.api.rest.config;
+
+import com.api.rest.indice.IndiceEmail;
+import com.api.rest.indice.IndiceTrigramas;
+import com.api.rest.service.EmpleadoService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+//construye los indices en memoria recorriendo la tabla una vez con el cursor de exportacion;
+//despues EmpleadoServiceImpl los mantiene en cada escritura
+@Slf4j
+@Profile("!reactivo")
+@Component
+public class InicializadorIndices {
+
+    @Autowired
+    private EmpleadoService empleadoService;
+
+    @Autowired
+    private IndiceTrigramas indiceTrigramas;
+
+    @Autowired
+    private IndiceEmail indiceEmail;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void construirIndices() {
+        long inicio = System.nanoTime();
+        empleadoService.exportarEmpleados(empleado -> {
+            indiceTrigramas.indexar(empleado);
+            indiceEmail.registrar(empleado);
+        });
+        indiceTrigramas.marcarConstruido();
+        indiceEmail.marcarConstruido();
+        log.info("Indices construidos con {} empleados en {} ms",
+                indiceTrigramas.tamano(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+}
@@ -0,0 +1,22 @@
+package com.api.rest.config;
+
+import com.api.rest.service.EmpleadoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+//corrige la deriva del contador de empleados (escrituras fuera de la API, fallos a mitad de un chunk...)
+//la primera ejecucion es al arrancar
+@Profile("!reactivo")
+@Component
+public class ReconciliadorTotal {
+
+    @Autowired
+    private EmpleadoService empleadoService;
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${empleados.total.reconciliacion:PT5M}")
+    public void reconciliar() {
+        empleadoService.reconciliarTotal();
+    }
+}
@@ -1,14 +1,39 @@
 package com.api.rest.controller;
 
+import com.api.rest.cambios.RegistroCambios;
+import com.api.rest.dto.CambioEmpleado;
+import com.api.rest.dto.EstadisticasCache;
+import com.api.rest.dto.EstadoIngesta;
+import com.api.rest.dto.ResultadoLoteEmpleado;
+import com.api.rest.dto.ResumenImportacion;
+import com.api.rest.ingesta.EscrituraDiferida;
 import com.api.rest.model.Empleado;
 import com.api.rest.service.EmpleadoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 
+@Profile("!reactivo")
 @RestController
 @RequestMapping("/api/empleados")
 public class EmpleadoController {
@@ -16,15 +41,157 @@ public class EmpleadoController {
     @Autowired
     private EmpleadoService empleadoService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EscrituraDiferida escrituraDiferida;
+
+    @Autowired
+    private RegistroCambios registroCambios;
+
+    @Value("${empleados.paginacion.tamano-maximo:1000}")
+    private int tamanoMaximoPagina;
+
     @PostMapping()
-    @ResponseStatus(HttpStatus.CREATED)
-    public Empleado guardarEmpleado(@RequestBody Empleado empleado){
-        return empleadoService.saveEmpleado(empleado);
+    public ResponseEntity<?> guardarEmpleado(@RequestBody Empleado empleado){
+        if (!escrituraDiferida.isHabilitada()) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(empleadoService.saveEmpleado(empleado));
+        }
+        //modo asincrono: se valida, se encola y se devuelve el id de seguimiento
+        if (empleado.getNombre() == null || empleado.getApellido() == null || empleado.getEmail() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        EstadoIngesta estado = escrituraDiferida.encolar(empleado);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                        .path("/ingesta/{seguimiento}")
+                        .buildAndExpand(estado.getSeguimiento())
+                        .toUri())
+                .body(estado);
+    }
+
+    //importacion masiva: el CSV se procesa mientras llega, en chunks confirmados por separado
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResumenImportacion importarEmpleadosCsv(InputStream csv,
+                                                   @RequestParam(value = "separador", defaultValue = ",") char separador){
+        return empleadoService.importarEmpleados(new InputStreamReader(csv, StandardCharsets.UTF_8), separador);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResumenImportacion importarEmpleadosMultipart(@RequestPart("archivo") MultipartFile archivo,
+                                                         @RequestParam(value = "separador", defaultValue = ",") char separador)
+            throws IOException {
+        //el contenedor deja el fichero en disco: se lee como stream igual que el cuerpo text/csv
+        try (InputStream csv = archivo.getInputStream()) {
+            return empleadoService.importarEmpleados(new InputStreamReader(csv, StandardCharsets.UTF_8), separador);
+        }
+    }
+
+    @GetMapping("/ingesta/{seguimiento}")
+    public ResponseEntity<EstadoIngesta> obtenerEstadoIngesta(@PathVariable("seguimiento") String seguimiento){
+        EstadoIngesta estado = escrituraDiferida.obtenerEstado(seguimiento);
+        return estado != null ? ResponseEntity.ok(estado) : ResponseEntity.notFound().build();
+    }
+
+    @PostMapping("/batch")
+    public List<ResultadoLoteEmpleado> guardarEmpleadosEnLote(@RequestBody List<Empleado> empleados){
+        return empleadoService.saveEmpleados(empleados);
     }
 
     @GetMapping
-    public List<Empleado> listarEmpleados(){
-        return empleadoService.getAllEmpleados();
+    public ResponseEntity<List<?>> listarEmpleados(@RequestParam(value = "after", required = false) Long after,
+                                                   @RequestParam(value = "limit", required = false) Integer limit,
+                                                   @RequestParam(value = "fields", required = false) List<String> fields,
+                                                   WebRequest request){
+        //la version de la coleccion se lee antes de consultar: si no cambio no se toca la base de datos
+        //cada seleccion de campos es una representacion distinta y lleva su propio ETag
+        String etag = "\"l" + empleadoService.getVersionColeccion()
+                + (fields != null ? "-" + String.join(".", fields) : "") + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        int limite = Math.max(1, Math.min(limit != null ? limit : tamanoMaximoPagina, tamanoMaximoPagina));
+        List<?> filas;
+        Long ultimoId;
+        if (fields != null) {
+            //solo las columnas pedidas, sin hidratar entidades
+            List<Map<String, Object>> campos = empleadoService.getCamposPaginados(fields, after != null ? after : 0, limite);
+            filas = campos;
+            ultimoId = campos.isEmpty() ? null : (Long) campos.get(campos.size() - 1).get("id");
+        } else {
+            List<Empleado> empleados = (after == null && limit == null)
+                    ? empleadoService.getAllEmpleados()
+                    : empleadoService.getEmpleadosPaginados(after != null ? after : 0, limite);
+            filas = empleados;
+            ultimoId = empleados.isEmpty() ? null : empleados.get(empleados.size() - 1).getId();
+        }
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok().eTag(etag)
+                .header("X-Total-Count", Long.toString(empleadoService.getTotalEmpleados()));
+        //pagina llena: puede haber mas filas, se devuelve el cursor siguiente en el header Link
+        if (filas.size() >= limite) {
+            String siguiente = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", ultimoId)
+                    .replaceQueryParam("limit", limite)
+                    .toUriString();
+            respuesta.header(HttpHeaders.LINK, "<" + siguiente + ">; rel=\"next\"");
+        }
+        return respuesta.body(filas);
+    }
+
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportarEmpleados(){
+        ObjectWriter escritor = objectMapper.writerFor(Empleado.class);
+        //una linea JSON por empleado, se escribe a medida que llegan las filas del cursor
+        StreamingResponseBody cuerpo = salida -> empleadoService.exportarEmpleados(empleado -> {
+            try {
+                salida.write(escritor.writeValueAsBytes(empleado));
+                salida.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(cuerpo);
+    }
+
+    @GetMapping("/search")
+    public List<Empleado> buscarEmpleados(@RequestParam("q") String consulta,
+                                          @RequestParam(value = "limit", defaultValue = "10") int limit){
+        //busqueda por prefijo tolerante a erratas sobre nombre, apellido y email
+        return empleadoService.buscarEmpleados(consulta, limit);
+    }
+
+    @GetMapping("/count")
+    public Map<String, Long> contarEmpleados(){
+        return Map.of("total", empleadoService.getTotalEmpleados());
+    }
+
+    //sincronizacion incremental: cambios posteriores a la secuencia indicada, 410 si ya no estan retenidos
+    @GetMapping("/changes")
+    public ResponseEntity<List<CambioEmpleado>> listarCambios(@RequestParam(value = "since", defaultValue = "0") long since,
+                                                              @RequestParam(value = "limit", required = false) Integer limit){
+        int limite = Math.max(1, Math.min(limit != null ? limit : tamanoMaximoPagina, tamanoMaximoPagina));
+        List<CambioEmpleado> cambios = registroCambios.desde(since, limite);
+        return ResponseEntity.ok()
+                .header("X-Ultima-Secuencia", Long.toString(registroCambios.getUltimaSecuencia()))
+                .body(cambios);
+    }
+
+    //el mismo feed como Server-Sent Events; al reconectar el navegador envia Last-Event-ID
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter suscribirCambios(@RequestParam(value = "since", required = false) Long since,
+                                       @RequestHeader(value = "Last-Event-ID", required = false) Long ultimoEvento){
+        return registroCambios.suscribir(ultimoEvento != null ? ultimoEvento
+                : since != null ? since : registroCambios.getUltimaSecuencia());
+    }
+
+    @GetMapping("/cache/estadisticas")
+    public EstadisticasCache obtenerEstadisticasCache(){
+        return empleadoService.getEstadisticasCache();
     }
 
     @GetMapping("/{id}")
@@ -32,29 +199,53 @@ public class EmpleadoController {
         //e por id
         //codigo de estado si true
         //si no "not found"
+        //con If-None-Match igual al ETag se responde 304 sin serializar el cuerpo
         return empleadoService.getEmpleadoById(empleadoId)
-                .map(ResponseEntity::ok)
+                .map(empleado -> ResponseEntity.ok().eTag(etag(empleado)).body(empleado))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/by-email/{email}")
+    public ResponseEntity<Empleado> obtenerEmpleadoPorEmail(@PathVariable("email") String email){
+        return empleadoService.getEmpleadoByEmail(email)
+                .map(empleado -> ResponseEntity.ok().eTag(etag(empleado)).body(empleado))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<Empleado> actualizarEmpleado(@PathVariable("id") long empleadoId,@RequestBody Empleado empleado){
-        return empleadoService.getEmpleadoById(empleadoId)
-                .map(empleadoGuardado -> {
-                    empleadoGuardado.setNombre(empleado.getNombre());
-                    empleadoGuardado.setApellido(empleado.getApellido());
-                    empleadoGuardado.setEmail(empleado.getEmail());
-
-                    Empleado empleadoActualizado = empleadoService.updateEmpleado(empleadoGuardado);
-                    return new ResponseEntity<>(empleadoActualizado,HttpStatus.OK);
-                })
-                .orElseGet(() -> ResponseEntity.notFound().build());
+        //PUT reemplaza el recurso completo
+        if (empleado.getNombre() == null || empleado.getApellido() == null || empleado.getEmail() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        empleado.setId(empleadoId);
+        Empleado empleadoActualizado = empleadoService.updateEmpleado(empleado);
+        return ResponseEntity.ok().eTag(etag(empleadoActualizado)).body(empleadoActualizado);
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<Empleado> actualizarEmpleadoParcial(@PathVariable("id") long empleadoId,@RequestBody Empleado cambios){
+        //solo se modifican los campos enviados
+        cambios.setId(empleadoId);
+        Empleado empleadoActualizado = empleadoService.updateEmpleado(cambios);
+        return ResponseEntity.ok().eTag(etag(empleadoActualizado)).body(empleadoActualizado);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<String> eliminarEmpleado(@PathVariable("id") long empleadoId){
-        empleadoService.deleteEmpleado(empleadoId);
-        return new ResponseEntity<String>("Empleado eliminado exitosamente",HttpStatus.OK);
+    public ResponseEntity<Void> eliminarEmpleado(@PathVariable("id") long empleadoId){
+        return empleadoService.deleteEmpleado(empleadoId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping(params = "ids")
+    public Map<String, Integer> eliminarEmpleados(@RequestParam("ids") List<Long> ids){
+        return Map.of("eliminados", empleadoService.deleteEmpleados(ids));
+    }
+
+    //ETag fuerte por fila: cambia con cada UPDATE porque incluye la version
+    private static String etag(Empleado empleado){
+        return "\"" + empleado.getId() + "-" + (empleado.getVersion() != null ? empleado.getVersion() : 0) + "\"";
     }
 
 }
@@ -0,0 +1,80 @@
+package com.api.rest.controller;
+
+import com.api.rest.model.EmpleadoReactivo;
+import com.api.rest.service.EmpleadoReactivoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+//misma API que EmpleadoController sobre WebFlux + R2DBC (perfil "reactivo")
+@Profile("reactivo")
+@RestController
+@RequestMapping("/api/empleados")
+public class EmpleadoReactivoController {
+
+    @Autowired
+    private EmpleadoReactivoService empleadoService;
+
+    @Value("${empleados.paginacion.tamano-maximo:1000}")
+    private int tamanoMaximoPagina;
+
+    @PostMapping()
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<EmpleadoReactivo> guardarEmpleado(@RequestBody EmpleadoReactivo empleado){
+        return empleadoService.saveEmpleado(empleado);
+    }
+
+    //con Accept: application/x-ndjson cada empleado se escribe en cuanto llega de la base de datos
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<EmpleadoReactivo> listarEmpleados(@RequestParam(value = "after", required = false) Long after,
+                                                  @RequestParam(value = "limit", required = false) Integer limit){
+        if (after == null && limit == null) {
+            return empleadoService.getAllEmpleados();
+        }
+        return empleadoService.getEmpleadosPaginados(after != null ? after : 0,
+                limit != null ? limit : tamanoMaximoPagina);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<EmpleadoReactivo> exportarEmpleados(){
+        return empleadoService.exportarEmpleados();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<EmpleadoReactivo>> obtenerEmpleadoPorId(@PathVariable("id") long empleadoId){
+        return empleadoService.getEmpleadoById(empleadoId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<EmpleadoReactivo>> actualizarEmpleado(@PathVariable("id") long empleadoId,
+                                                                     @RequestBody EmpleadoReactivo empleado){
+        if (empleado.getNombre() == null || empleado.getApellido() == null || empleado.getEmail() == null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        empleado.setId(empleadoId);
+        return empleadoService.updateEmpleado(empleado).map(ResponseEntity::ok);
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<EmpleadoReactivo>> actualizarEmpleadoParcial(@PathVariable("id") long empleadoId,
+                                                                            @RequestBody EmpleadoReactivo cambios){
+        cambios.setId(empleadoId);
+        return empleadoService.updateEmpleado(cambios).map(ResponseEntity::ok);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> eliminarEmpleado(@PathVariable("id") long empleadoId){
+        return empleadoService.deleteEmpleado(empleadoId)
+                .map(eliminado -> eliminado
+                        ? ResponseEntity.noContent().<Void>build()
+                        : ResponseEntity.notFound().<Void>build());
+    }
+}
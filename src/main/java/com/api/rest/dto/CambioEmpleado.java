@@ -0,0 +1,23 @@
+package com.api.rest.dto;
+
+import com.api.rest.model.Empleado;
+import lombok.*;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CambioEmpleado {
+
+    public enum Tipo { ALTA, MODIFICACION, BAJA }
+
+    private long secuencia;
+    private Tipo tipo;
+    private Long id;
+    //estado tras el cambio; nulo en las bajas
+    private Empleado empleado;
+    private Instant instante;
+}
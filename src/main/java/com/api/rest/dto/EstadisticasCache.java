@@ -0,0 +1,17 @@
+package com.api.rest.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EstadisticasCache {
+
+    private long aciertos;
+    private long fallos;
+    private long desalojos;
+    private double tasaAciertos;
+    private long entradas;
+}
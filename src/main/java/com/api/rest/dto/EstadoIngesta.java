@@ -0,0 +1,32 @@
+package com.api.rest.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EstadoIngesta {
+
+    public enum Estado { PENDIENTE, CREADO, CONFLICTO, INVALIDO, ERROR }
+
+    private String seguimiento;
+    private String email;
+    private Estado estado;
+    private Long id;
+    private String mensaje;
+
+    public static EstadoIngesta pendiente(String seguimiento, String email){
+        return new EstadoIngesta(seguimiento, email, Estado.PENDIENTE, null, null);
+    }
+
+    public static EstadoIngesta desde(String seguimiento, ResultadoLoteEmpleado resultado){
+        return new EstadoIngesta(seguimiento, resultado.getEmail(), Estado.valueOf(resultado.getEstado().name()),
+                resultado.getId(), resultado.getMensaje());
+    }
+
+    public static EstadoIngesta error(String seguimiento, String email, String mensaje){
+        return new EstadoIngesta(seguimiento, email, Estado.ERROR, null, mensaje);
+    }
+}
@@ -0,0 +1,32 @@
+package com.api.rest.dto;
+
+import com.api.rest.model.Empleado;
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ResultadoLoteEmpleado {
+
+    public enum Estado { CREADO, CONFLICTO, INVALIDO }
+
+    private int indice;
+    private String email;
+    private Estado estado;
+    private Long id;
+    private String mensaje;
+
+    public static ResultadoLoteEmpleado creado(int indice, Empleado empleado){
+        return new ResultadoLoteEmpleado(indice, empleado.getEmail(), Estado.CREADO, empleado.getId(), null);
+    }
+
+    public static ResultadoLoteEmpleado conflicto(int indice, String email){
+        return new ResultadoLoteEmpleado(indice, email, Estado.CONFLICTO, null, "Empleado con ese email ya existe:" + email);
+    }
+
+    public static ResultadoLoteEmpleado invalido(int indice, String email, String mensaje){
+        return new ResultadoLoteEmpleado(indice, email, Estado.INVALIDO, null, mensaje);
+    }
+}
@@ -0,0 +1,22 @@
+package com.api.rest.dto;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ResumenImportacion {
+
+    private long filas;
+    private long aceptadas;
+    private long duplicadas;
+    private long invalidas;
+    //primeras filas rechazadas con su linea del fichero, acotadas para no crecer con el CSV
+    @Builder.Default
+    private List<String> incidencias = new ArrayList<>();
+}
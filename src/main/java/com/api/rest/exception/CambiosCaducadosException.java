@@ -0,0 +1,8 @@
+package com.api.rest.exception;
+
+public class CambiosCaducadosException extends RuntimeException{
+
+    public CambiosCaducadosException(String message){
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.api.rest.exception;
+
+public class CampoInvalidoException extends RuntimeException{
+
+    public CampoInvalidoException(String message){
+        super(message);
+    }
+}
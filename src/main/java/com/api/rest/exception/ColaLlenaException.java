@@ -0,0 +1,8 @@
+package com.api.rest.exception;
+
+public class ColaLlenaException extends RuntimeException{
+
+    public ColaLlenaException(String message){
+        super(message);
+    }
+}
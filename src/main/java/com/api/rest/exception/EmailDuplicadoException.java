@@ -0,0 +1,8 @@
+package com.api.rest.exception;
+
+public class EmailDuplicadoException extends RuntimeException{
+
+    public EmailDuplicadoException(String message){
+        super(message);
+    }
+}
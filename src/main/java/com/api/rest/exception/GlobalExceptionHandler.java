@@ -0,0 +1,58 @@
+package com.api.rest.exception;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    @ExceptionHandler(EmailDuplicadoException.class)
+    public ResponseEntity<Map<String, String>> manejarEmailDuplicado(EmailDuplicadoException ex){
+        return new ResponseEntity<>(Map.of("mensaje", ex.getMessage()), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler({VersionConflictoException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<Map<String, String>> manejarVersionConflicto(RuntimeException ex){
+        return new ResponseEntity<>(Map.of("mensaje", ex.getMessage()), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(CampoInvalidoException.class)
+    public ResponseEntity<Map<String, String>> manejarCampoInvalido(CampoInvalidoException ex){
+        return new ResponseEntity<>(Map.of("mensaje", ex.getMessage()), HttpStatus.BAD_REQUEST);
+    }
+
+    //el cliente puede reintentar en cuanto el escritor vacie parte de la cola
+    @ExceptionHandler(ColaLlenaException.class)
+    public ResponseEntity<Map<String, String>> manejarColaLlena(ColaLlenaException ex){
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("mensaje", ex.getMessage()));
+    }
+
+    //el cliente perdio cambios que ya no estan retenidos: tiene que volver a descargar el listado completo
+    @ExceptionHandler(CambiosCaducadosException.class)
+    public ResponseEntity<Map<String, String>> manejarCambiosCaducados(CambiosCaducadosException ex){
+        return new ResponseEntity<>(Map.of("mensaje", ex.getMessage()), HttpStatus.GONE);
+    }
+
+    //sin conexion a tiempo (permisos de DataSourceConAdmision agotados o pool lleno): se descarta carga con 503
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<Map<String, String>> manejarBaseDatosSaturada(RuntimeException ex){
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("mensaje", "Base de datos saturada, reintentar mas tarde"));
+    }
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<Map<String, String>> manejarNoEncontrado(ResourceNotFoundException ex){
+        return new ResponseEntity<>(Map.of("mensaje", ex.getMessage()), HttpStatus.NOT_FOUND);
+    }
+}
@@ -0,0 +1,8 @@
+package com.api.rest.exception;
+
+public class VersionConflictoException extends RuntimeException{
+
+    public VersionConflictoException(String message){
+        super(message);
+    }
+}
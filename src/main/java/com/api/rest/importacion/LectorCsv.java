@@ -0,0 +1,102 @@
+package com.api.rest.importacion;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+//lector CSV incremental (RFC 4180): devuelve una fila cada vez sin cargar el fichero en memoria;
+//admite comillas dobles, comillas escapadas ("") y saltos de linea dentro de un campo entrecomillado;
+//descarta la marca de orden de bytes (BOM) con la que Excel guarda los CSV en UTF-8
+public class LectorCsv {
+
+    private static final char BOM = '\uFEFF';
+
+    private final Reader lector;
+    private final char separador;
+    private int siguiente = -2;
+    private boolean inicio = true;
+    //lineas fisicas: un campo entrecomillado puede ocupar varias
+    private long saltosLeidos;
+    private int anterior = -1;
+    private long lineaFila;
+
+    public LectorCsv(Reader lector, char separador) {
+        this.lector = lector;
+        this.separador = separador;
+    }
+
+    //null al llegar al final
+    public List<String> leerFila() throws IOException {
+        lineaFila = saltosLeidos + 1;
+        int c = leer();
+        if (c == -1) {
+            return null;
+        }
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entrecomillado = false;
+        while (true) {
+            if (entrecomillado) {
+                if (c == -1) {
+                    break;
+                } else if (c == '"') {
+                    int despues = leer();
+                    if (despues == '"') {
+                        campo.append('"');
+                    } else {
+                        entrecomillado = false;
+                        c = despues;
+                        continue;
+                    }
+                } else {
+                    campo.append((char) c);
+                }
+            } else if (c == '"' && campo.isEmpty()) {
+                entrecomillado = true;
+            } else if (c == separador) {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r') {
+                    int despues = leer();
+                    if (despues != '\n') {
+                        siguiente = despues;
+                    }
+                }
+                break;
+            } else {
+                campo.append((char) c);
+            }
+            c = leer();
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+
+    //linea fisica (empezando en 1) en la que empieza la ultima fila devuelta por leerFila
+    public long getLinea() {
+        return lineaFila;
+    }
+
+    private int leer() throws IOException {
+        if (siguiente != -2) {
+            int c = siguiente;
+            siguiente = -2;
+            return c;
+        }
+        int c = lector.read();
+        if (inicio) {
+            inicio = false;
+            if (c == BOM) {
+                c = lector.read();
+            }
+        }
+        //\r\n cuenta como un solo salto
+        if (c == '\r' || (c == '\n' && anterior != '\r')) {
+            saltosLeidos++;
+        }
+        anterior = c;
+        return c;
+    }
+}
@@ -0,0 +1,87 @@
+package com.api.rest.indice;
+
+import com.api.rest.model.Empleado;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//email -> id en memoria para resolver empleados por email sin consultar la base de datos;
+//el mapa inverso id -> (email, version) permite quitar el email anterior al actualizar o eliminar
+@Component
+public class IndiceEmail {
+
+    //email nulo: baja registrada durante la carga inicial
+    private record Entrada(String email, long version) {
+    }
+
+    private static final long BORRADO = Long.MAX_VALUE;
+
+    private final Map<String, Long> porEmail = new ConcurrentHashMap<>();
+    private final Map<Long, Entrada> porId = new ConcurrentHashMap<>();
+    //hasta terminar la carga inicial una ausencia en el indice no es fiable
+    private volatile boolean construido;
+
+    public void registrar(Empleado empleado) {
+        long id = empleado.getId();
+        String email = empleado.getEmail();
+        long version = empleado.getVersion() != null ? empleado.getVersion() : -1;
+        porId.compute(id, (clave, anterior) -> {
+            //gana la version mayor: dos actualizaciones concurrentes o la carga inicial pueden llegar desordenadas
+            if (anterior != null && anterior.version() > version) {
+                return anterior;
+            }
+            if (anterior != null && anterior.email() != null && !anterior.email().equals(email)) {
+                porEmail.remove(anterior.email(), id);
+            }
+            porEmail.put(email, id);
+            return new Entrada(email, version);
+        });
+    }
+
+    public void eliminar(long id) {
+        porId.compute(id, (clave, anterior) -> {
+            if (anterior != null && anterior.email() != null) {
+                porEmail.remove(anterior.email(), id);
+            }
+            //mientras se construye se deja una marca para que la carga inicial no vuelva a registrar la fila
+            return construido ? null : new Entrada(null, BORRADO);
+        });
+    }
+
+    //entrada que la base de datos desmiente: se quita para no seguir respondiendo con ella
+    public void descartar(String email) {
+        Long id = porEmail.get(email);
+        if (id != null) {
+            porId.computeIfPresent(id, (clave, anterior) -> {
+                if (!email.equals(anterior.email())) {
+                    return anterior;
+                }
+                porEmail.remove(email, id);
+                return null;
+            });
+        }
+    }
+
+    public Long buscar(String email) {
+        return porEmail.get(email);
+    }
+
+    public boolean contiene(String email) {
+        return email != null && porEmail.containsKey(email);
+    }
+
+    public boolean isConstruido() {
+        return construido;
+    }
+
+    //los ids no se reutilizan: terminada la carga las marcas de baja ya no hacen falta
+    public void marcarConstruido() {
+        construido = true;
+        porId.values().removeIf(entrada -> entrada.email() == null);
+    }
+
+    public int tamano() {
+        return porEmail.size();
+    }
+}
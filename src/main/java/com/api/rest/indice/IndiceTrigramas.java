@@ -0,0 +1,174 @@
+package com.api.rest.indice;
+
+import com.api.rest.model.Empleado;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+//indice invertido en memoria de trigramas sobre nombre, apellido y la parte local del email
+//cada palabra se indexa como "  palabra " para que los prefijos compartan los primeros trigramas
+//y una errata solo rompa los trigramas que la contienen
+@Component
+public class IndiceTrigramas {
+
+    //fraccion minima de trigramas de la consulta que debe tener un empleado para aparecer
+    private static final double SIMILITUD_MINIMA = 0.5;
+
+    //empleado nulo: baja registrada durante la carga inicial, como en IndiceEmail
+    private record Entrada(Empleado empleado, Set<String> trigramas, List<String> palabras) {
+    }
+
+    private static final Entrada BORRADO = new Entrada(null, Set.of(), List.of());
+
+    private record Candidato(Entrada entrada, double puntuacion) {
+    }
+
+    private final Map<String, Set<Long>> porTrigrama = new ConcurrentHashMap<>();
+    private final Map<Long, Entrada> entradas = new ConcurrentHashMap<>();
+    //hasta terminar la carga inicial una baja deja marca: el recorrido de la tabla podria volver a indexar la fila
+    private volatile boolean construido;
+
+    public void indexar(Empleado empleado) {
+        List<String> palabras = palabras(empleado);
+        Set<String> trigramas = new HashSet<>();
+        palabras.forEach(palabra -> trigramas(palabra, true, trigramas));
+        Entrada nueva = new Entrada(empleado.copia(), trigramas, palabras);
+        long id = empleado.getId();
+        entradas.compute(id, (clave, anterior) -> {
+            //la carga inicial puede llegar despues de una escritura mas reciente: gana la version mayor,
+            //y una baja siempre gana porque los ids no se reutilizan
+            if (anterior == BORRADO || anterior != null && esMasNueva(anterior.empleado(), empleado)) {
+                return anterior;
+            }
+            if (anterior != null) {
+                anterior.trigramas().forEach(trigrama -> quitar(trigrama, id));
+            }
+            trigramas.forEach(trigrama -> porTrigrama.compute(trigrama, (t, ids) -> {
+                Set<Long> conjunto = ids != null ? ids : ConcurrentHashMap.newKeySet();
+                conjunto.add(id);
+                return conjunto;
+            }));
+            return nueva;
+        });
+    }
+
+    public void eliminar(long id) {
+        entradas.compute(id, (clave, anterior) -> {
+            if (anterior != null) {
+                anterior.trigramas().forEach(trigrama -> quitar(trigrama, id));
+            }
+            return construido ? null : BORRADO;
+        });
+    }
+
+    //terminada la carga las marcas de baja ya no hacen falta
+    public void marcarConstruido() {
+        construido = true;
+        entradas.values().removeIf(entrada -> entrada == BORRADO);
+    }
+
+    //top-K por trigramas compartidos; a igualdad, primero los que empiezan exactamente por lo buscado
+    public List<Empleado> buscar(String consulta, int limite) {
+        List<String> terminos = normalizarPalabras(consulta);
+        Set<String> trigramasConsulta = new HashSet<>();
+        terminos.forEach(termino -> trigramas(termino, false, trigramasConsulta));
+        if (trigramasConsulta.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Integer> coincidencias = new HashMap<>();
+        for (String trigrama : trigramasConsulta) {
+            Set<Long> ids = porTrigrama.get(trigrama);
+            if (ids != null) {
+                ids.forEach(id -> coincidencias.merge(id, 1, Integer::sum));
+            }
+        }
+
+        int minimo = (int) Math.ceil(trigramasConsulta.size() * SIMILITUD_MINIMA);
+        Comparator<Candidato> orden = Comparator.comparingDouble(Candidato::puntuacion)
+                .thenComparing(candidato -> -candidato.entrada().empleado().getId());
+        PriorityQueue<Candidato> mejores = new PriorityQueue<>(limite + 1, orden);
+        coincidencias.forEach((id, comunes) -> {
+            Entrada entrada = entradas.get(id);
+            if (comunes < minimo || entrada == null || entrada == BORRADO) {
+                return;
+            }
+            double puntuacion = (double) comunes / trigramasConsulta.size();
+            if (terminos.stream().allMatch(termino -> entrada.palabras().stream().anyMatch(p -> p.startsWith(termino)))) {
+                puntuacion += 1;
+            }
+            mejores.add(new Candidato(entrada, puntuacion));
+            if (mejores.size() > limite) {
+                mejores.poll();
+            }
+        });
+
+        List<Empleado> resultado = new ArrayList<>(mejores.size());
+        while (!mejores.isEmpty()) {
+            resultado.add(mejores.poll().entrada().empleado().copia());
+        }
+        Collections.reverse(resultado);
+        return resultado;
+    }
+
+    public int tamano() {
+        return (int) entradas.values().stream().filter(entrada -> entrada != BORRADO).count();
+    }
+
+    private void quitar(String trigrama, long id) {
+        porTrigrama.computeIfPresent(trigrama, (t, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static boolean esMasNueva(Empleado actual, Empleado entrante) {
+        return actual.getVersion() != null && entrante.getVersion() != null && actual.getVersion() > entrante.getVersion();
+    }
+
+    //el dominio del email se omite: lo comparten casi todos y sus trigramas no discriminan
+    private static List<String> palabras(Empleado empleado) {
+        String email = empleado.getEmail() != null ? empleado.getEmail() : "";
+        int arroba = email.indexOf('@');
+        List<String> palabras = new ArrayList<>();
+        palabras.addAll(normalizarPalabras(empleado.getNombre()));
+        palabras.addAll(normalizarPalabras(empleado.getApellido()));
+        palabras.addAll(normalizarPalabras(arroba >= 0 ? email.substring(0, arroba) : email));
+        return palabras;
+    }
+
+    private static List<String> normalizarPalabras(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return List.of();
+        }
+        String normalizado = Normalizer.normalize(texto, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+        List<String> palabras = new ArrayList<>();
+        for (String palabra : normalizado.split("[^\\p{Alnum}]+")) {
+            if (!palabra.isEmpty()) {
+                palabras.add(palabra);
+            }
+        }
+        return palabras;
+    }
+
+    //la consulta no lleva el espacio final para que un prefijo coincida con palabras mas largas
+    private static void trigramas(String palabra, boolean completa, Set<String> destino) {
+        String texto = "  " + palabra + (completa ? " " : "");
+        for (int i = 0; i + 3 <= texto.length(); i++) {
+            destino.add(texto.substring(i, i + 3));
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.api.rest.ingesta;
+
+import com.api.rest.dto.EstadoIngesta;
+import com.api.rest.dto.ResultadoLoteEmpleado;
+import com.api.rest.exception.ColaLlenaException;
+import com.api.rest.model.Empleado;
+import com.api.rest.service.EmpleadoService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//modo opcional de alta asincrona: POST /api/empleados encola y responde 202; un hilo escritor
+//vacia la cola en lotes con saveEmpleados (un INSERT en batch por chunk en vez de una transaccion por fila)
+@Slf4j
+@Component
+public class EscrituraDiferida implements SmartLifecycle, MeterBinder {
+
+    private record Pendiente(String seguimiento, Empleado empleado) {
+    }
+
+    @Autowired
+    private EmpleadoService empleadoService;
+
+    private final boolean habilitada;
+    private final int tamanoLote;
+    private final long esperaLoteMs;
+    private final long esperaParadaMs;
+    private final BlockingQueue<Pendiente> cola;
+    //estado por id de seguimiento, acotado y con caducidad para no crecer sin limite
+    private final Cache<String, EstadoIngesta> estados;
+
+    private volatile boolean aceptando;
+    private volatile Thread escritor;
+    //encolar comprueba aceptando y ofrece bajo el de lectura; stop() lo cierra con el de escritura,
+    //asi ningun elemento entra en la cola despues de que el escritor pueda haber visto la cola vacia
+    private final ReadWriteLock admision = new ReentrantReadWriteLock();
+
+    public EscrituraDiferida(@Value("${empleados.escritura-diferida.habilitada:false}") boolean habilitada,
+                             @Value("${empleados.escritura-diferida.capacidad:10000}") int capacidad,
+                             @Value("${empleados.escritura-diferida.tamano-lote:500}") int tamanoLote,
+                             @Value("${empleados.escritura-diferida.espera-lote:50ms}") Duration esperaLote,
+                             @Value("${empleados.escritura-diferida.retencion-estado:1h}") Duration retencionEstado,
+                             @Value("${spring.lifecycle.timeout-per-shutdown-phase:30s}") Duration esperaParada) {
+        this.habilitada = habilitada;
+        this.tamanoLote = tamanoLote;
+        this.esperaLoteMs = esperaLote.toMillis();
+        this.esperaParadaMs = esperaParada.toMillis();
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+        this.estados = Caffeine.newBuilder()
+                .maximumSize(capacidad * 10L)
+                .expireAfterWrite(retencionEstado)
+                .build();
+    }
+
+    public boolean isHabilitada() {
+        return habilitada;
+    }
+
+    //contrapresion: si la cola esta llena se rechaza en vez de bloquear el hilo de la peticion
+    public EstadoIngesta encolar(Empleado empleado) {
+        admision.readLock().lock();
+        try {
+            if (!aceptando) {
+                throw new ColaLlenaException("La ingesta asincrona no esta aceptando empleados");
+            }
+            empleado.setId(null);
+            empleado.setVersion(null);
+            String seguimiento = UUID.randomUUID().toString();
+            EstadoIngesta pendiente = EstadoIngesta.pendiente(seguimiento, empleado.getEmail());
+            estados.put(seguimiento, pendiente);
+            if (!cola.offer(new Pendiente(seguimiento, empleado))) {
+                estados.invalidate(seguimiento);
+                throw new ColaLlenaException("Cola de ingesta llena, capacidad:" + (cola.size() + cola.remainingCapacity()));
+            }
+            return pendiente;
+        } finally {
+            admision.readLock().unlock();
+        }
+    }
+
+    public EstadoIngesta obtenerEstado(String seguimiento) {
+        return estados.getIfPresent(seguimiento);
+    }
+
+    private void escribir() {
+        List<Pendiente> lote = new ArrayList<>(tamanoLote);
+        //tras stop() se sigue hasta vaciar la cola
+        while (aceptando || !cola.isEmpty()) {
+            try {
+                Pendiente primero = cola.poll(esperaLoteMs, TimeUnit.MILLISECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                lote.add(primero);
+                cola.drainTo(lote, tamanoLote - 1);
+                guardarLote(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void guardarLote(List<Pendiente> lote) {
+        try {
+            List<ResultadoLoteEmpleado> resultados = empleadoService.saveEmpleados(
+                    lote.stream().map(Pendiente::empleado).toList());
+            for (ResultadoLoteEmpleado resultado : resultados) {
+                String seguimiento = lote.get(resultado.getIndice()).seguimiento();
+                estados.put(seguimiento, EstadoIngesta.desde(seguimiento, resultado));
+            }
+        } catch (RuntimeException e) {
+            log.error("Error guardando un lote de {} empleados encolados", lote.size(), e);
+            lote.forEach(pendiente -> estados.put(pendiente.seguimiento(),
+                    EstadoIngesta.error(pendiente.seguimiento(), pendiente.empleado().getEmail(), e.getMessage())));
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!habilitada) {
+            return;
+        }
+        aceptando = true;
+        escritor = new Thread(this::escribir, "escritura-diferida");
+        escritor.start();
+    }
+
+    //apagado ordenado: deja de aceptar y espera a que el escritor vacie la cola, como mucho el timeout de la fase
+    //(spring.lifecycle.timeout-per-shutdown-phase); lo que quede se marca como error en vez de quedar pendiente
+    @Override
+    public void stop() {
+        admision.writeLock().lock();
+        try {
+            aceptando = false;
+        } finally {
+            admision.writeLock().unlock();
+        }
+        Thread hilo = escritor;
+        if (hilo != null) {
+            try {
+                hilo.join(esperaParadaMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (hilo.isAlive()) {
+                hilo.interrupt();
+                log.warn("La escritura diferida no termino en {} ms, pendientes en cola: {}", esperaParadaMs, cola.size());
+            }
+            descartarPendientes();
+            log.info("Escritura diferida detenida");
+        }
+        escritor = null;
+    }
+
+    private void descartarPendientes() {
+        List<Pendiente> descartados = new ArrayList<>();
+        cola.drainTo(descartados);
+        descartados.forEach(pendiente -> estados.put(pendiente.seguimiento(), EstadoIngesta.error(pendiente.seguimiento(),
+                pendiente.empleado().getEmail(), "La aplicacion se detuvo antes de guardar el empleado")));
+    }
+
+    @Override
+    public boolean isRunning() {
+        return escritor != null;
+    }
+
+    //fase menor que la del servidor web: se detiene despues de que deje de recibir peticiones
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("empleados.escritura-diferida.cola", cola, BlockingQueue::size).register(registry);
+    }
+}
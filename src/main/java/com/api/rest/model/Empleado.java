@@ -2,18 +2,30 @@ package com.api.rest.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Setter
 @Getter
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Entity
-@Table(name= "empleados")
+//cache de segundo nivel de Hibernate (region com.api.rest.model.Empleado en ehcache.xml);
+//las escrituras de EmpleadoRepository pasan por la entidad para desalojar solo la entrada afectada, ver EmpleadoEscrituraRepository
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name= "empleados",
+        uniqueConstraints = @UniqueConstraint(name = "uk_empleados_email", columnNames = "email"))
 public class Empleado {
 
+    //ids que reserva cada valor de empleados_seq; el perfil reactivo reparte los suyos con el mismo tamaño
+    public static final int IDS_POR_BLOQUE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    //secuencia con optimizador pooled: Hibernate reserva ids en bloques y puede agrupar los INSERT en batch
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "empleados_seq")
+    @SequenceGenerator(name = "empleados_seq", sequenceName = "empleados_seq", allocationSize = IDS_POR_BLOQUE)
     private Long id;
     @Column(name="nombre",nullable = false)
     private String nombre;
@@ -21,4 +33,14 @@ public class Empleado {
     private String apellido;
     @Column(name="email",nullable = false)
     private String email;
+    //control de concurrencia optimista: cada UPDATE incrementa la version
+    @Version
+    @Column(name="version")
+    private Long version;
+
+    //copia separada de la entidad gestionada para las estructuras en memoria (cache, indices, feed de cambios):
+    //nadie fuera de ellas puede modificar lo que guardan ni lo que devuelven
+    public Empleado copia() {
+        return toBuilder().build();
+    }
 }
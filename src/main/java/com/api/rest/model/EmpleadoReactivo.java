@@ -0,0 +1,24 @@
+package com.api.rest.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+//misma tabla y mismo JSON que Empleado, mapeado con Spring Data R2DBC para el perfil reactivo
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table("empleados")
+public class EmpleadoReactivo {
+
+    @Id
+    private Long id;
+    private String nombre;
+    private String apellido;
+    private String email;
+    @Version
+    private Long version;
+}
@@ -0,0 +1,14 @@
+package com.api.rest.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+//fragmento de EmpleadoRepository para listados con solo algunas columnas (?fields=)
+public interface EmpleadoCamposRepository {
+
+    //columnas que se pueden pedir; el id siempre se selecciona porque es el cursor de la paginacion
+    Set<String> CAMPOS = Set.of("id", "nombre", "apellido", "email", "version");
+
+    List<Map<String, Object>> findCamposPaginados(List<String> campos, long after, int limite);
+}
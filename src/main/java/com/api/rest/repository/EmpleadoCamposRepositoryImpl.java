@@ -0,0 +1,53 @@
+package com.api.rest.repository;
+
+import com.api.rest.model.Empleado;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//SELECT solo de las columnas pedidas como Tuple: no se crean entidades gestionadas ni snapshots de dirty checking
+public class EmpleadoCamposRepositoryImpl implements EmpleadoCamposRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findCamposPaginados(List<String> campos, long after, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> consulta = cb.createTupleQuery();
+        Root<Empleado> empleado = consulta.from(Empleado.class);
+
+        List<Selection<?>> columnas = new ArrayList<>();
+        columnas.add(empleado.get("id").alias("id"));
+        for (String campo : campos) {
+            if (!campo.equals("id")) {
+                columnas.add(empleado.get(campo).alias(campo));
+            }
+        }
+        consulta.multiselect(columnas)
+                .where(cb.greaterThan(empleado.<Long>get("id"), after))
+                .orderBy(cb.asc(empleado.get("id")));
+
+        List<Tuple> filas = entityManager.createQuery(consulta).setMaxResults(limite).getResultList();
+        List<Map<String, Object>> resultado = new ArrayList<>(filas.size());
+        for (Tuple fila : filas) {
+            //se respeta el orden de ?fields=; el id se conserva aunque no se pida, lo necesita el cursor
+            Map<String, Object> valores = new LinkedHashMap<>();
+            for (String campo : campos) {
+                valores.put(campo, fila.get(campo));
+            }
+            valores.putIfAbsent("id", fila.get("id"));
+            resultado.add(valores);
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,27 @@
+package com.api.rest.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+//fragmento de EmpleadoRepository para escrituras por id a traves de la entidad: Hibernate solo actualiza o
+//desaloja esas entradas de la cache de segundo nivel, un UPDATE/DELETE JPQL masivo vaciaria la region entera
+public interface EmpleadoEscrituraRepository {
+
+    //los campos nulos conservan su valor (PATCH); devuelve 0 si el empleado no existe
+    @Transactional
+    int actualizar(long id, String nombre, String apellido, String email);
+
+    //devuelve 0 si el empleado no existe o ya no tiene esa version
+    @Transactional
+    int actualizarConVersion(long id, String nombre, String apellido, String email, long version);
+
+    //el numero de filas indica si el empleado existia
+    @Transactional
+    int eliminarPorId(long id);
+
+    //ids que existian y se han eliminado
+    @Transactional
+    List<Long> eliminarPorIds(Collection<Long> ids);
+}
@@ -0,0 +1,84 @@
+package com.api.rest.repository;
+
+import com.api.rest.model.Empleado;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+//find (normalmente un acierto en la cache de segundo nivel) y cambios sobre la entidad gestionada;
+//el UPDATE/DELETE lleva "where id = ? and version = ?": si otra escritura se cuela entre la lectura y el flush
+//falla con OptimisticLockingFailureException (409) en vez de pisarla
+public class EmpleadoEscrituraRepositoryImpl implements EmpleadoEscrituraRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int actualizar(long id, String nombre, String apellido, String email) {
+        Empleado empleado = entityManager.find(Empleado.class, id);
+        if (empleado == null) {
+            return 0;
+        }
+        return aplicar(empleado, nombre, apellido, email);
+    }
+
+    @Override
+    public int actualizarConVersion(long id, String nombre, String apellido, String email, long version) {
+        Empleado empleado = entityManager.find(Empleado.class, id);
+        if (empleado == null || empleado.getVersion() == null || empleado.getVersion() != version) {
+            return 0;
+        }
+        return aplicar(empleado, nombre, apellido, email);
+    }
+
+    @Override
+    public int eliminarPorId(long id) {
+        Empleado empleado = entityManager.find(Empleado.class, id);
+        if (empleado == null) {
+            return 0;
+        }
+        entityManager.remove(empleado);
+        entityManager.flush();
+        return 1;
+    }
+
+    @Override
+    public List<Long> eliminarPorIds(Collection<Long> ids) {
+        //una sola carga por lote, resolviendo primero en la sesion y la cache de segundo nivel; los DELETE van en batch
+        List<Empleado> empleados = entityManager.unwrap(Session.class)
+                .byMultipleIds(Empleado.class)
+                .enableSessionCheck(true)
+                .enableOrderedReturn(false)
+                .multiLoad(new ArrayList<>(ids));
+        List<Long> eliminados = new ArrayList<>(empleados.size());
+        for (Empleado empleado : empleados) {
+            //los ids que no existen pueden volver como null
+            if (empleado == null) {
+                continue;
+            }
+            entityManager.remove(empleado);
+            eliminados.add(empleado.getId());
+        }
+        entityManager.flush();
+        return eliminados;
+    }
+
+    //sin cambios reales Hibernate no emite UPDATE y la version no sube
+    private int aplicar(Empleado empleado, String nombre, String apellido, String email) {
+        if (nombre != null) {
+            empleado.setNombre(nombre);
+        }
+        if (apellido != null) {
+            empleado.setApellido(apellido);
+        }
+        if (email != null) {
+            empleado.setEmail(email);
+        }
+        entityManager.flush();
+        return 1;
+    }
+}
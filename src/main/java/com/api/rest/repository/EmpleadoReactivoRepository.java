@@ -0,0 +1,25 @@
+package com.api.rest.repository;
+
+import com.api.rest.model.EmpleadoReactivo;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface EmpleadoReactivoRepository extends ReactiveCrudRepository<EmpleadoReactivo, Long> {
+
+    //misma secuencia que usa Hibernate; cada valor es el ultimo id de un bloque de Empleado.IDS_POR_BLOQUE
+    @Query("SELECT NEXT VALUE FOR empleados_seq")
+    Mono<Long> siguienteId();
+
+    @Query("SELECT * FROM empleados WHERE id > :after ORDER BY id LIMIT :limit")
+    Flux<EmpleadoReactivo> findPagina(long after, int limit);
+
+    @Query("SELECT * FROM empleados ORDER BY id")
+    Flux<EmpleadoReactivo> streamTodos();
+
+    @Modifying
+    @Query("DELETE FROM empleados WHERE id = :id")
+    Mono<Integer> eliminarPorId(long id);
+}
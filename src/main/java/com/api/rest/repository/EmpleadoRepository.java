@@ -1,12 +1,39 @@
 package com.api.rest.repository;
 
 import com.api.rest.model.Empleado;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface EmpleadoRepository extends JpaRepository<Empleado, Long> {
+public interface EmpleadoRepository extends JpaRepository<Empleado, Long>, EmpleadoCamposRepository,
+        EmpleadoEscrituraRepository {
 
+    //resultado en la cache de consultas; se invalida cuando cambia la tabla empleados
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<Empleado> findByEmail(String email);
 
+    @Query("select e.email from Empleado e where e.email in :emails")
+    List<String> findEmailsExistentes(Collection<String> emails);
+
+    //paginacion por cursor: id > ? order by id limit ? (usa el indice de la PK)
+    List<Empleado> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    //recorre la tabla con un cursor JDBC, hay que consumirlo dentro de una transaccion y cerrarlo
+    //sin cache de segundo nivel: una exportacion o la carga de los indices no debe desalojar las entradas calientes
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("select e from Empleado e order by e.id")
+    Stream<Empleado> streamTodos();
+
 }
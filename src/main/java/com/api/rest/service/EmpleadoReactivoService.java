@@ -0,0 +1,22 @@
+package com.api.rest.service;
+
+import com.api.rest.model.EmpleadoReactivo;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface EmpleadoReactivoService {
+
+    Mono<EmpleadoReactivo> saveEmpleado(EmpleadoReactivo empleado);
+
+    Flux<EmpleadoReactivo> getAllEmpleados();
+
+    Flux<EmpleadoReactivo> getEmpleadosPaginados(long after, int limit);
+
+    Flux<EmpleadoReactivo> exportarEmpleados();
+
+    Mono<EmpleadoReactivo> getEmpleadoById(long id);
+
+    Mono<EmpleadoReactivo> updateEmpleado(EmpleadoReactivo empleadoActualizado);
+
+    Mono<Boolean> deleteEmpleado(long id);
+}
@@ -1,19 +1,49 @@
 package com.api.rest.service;
 
+import com.api.rest.dto.EstadisticasCache;
+import com.api.rest.dto.ResultadoLoteEmpleado;
+import com.api.rest.dto.ResumenImportacion;
 import com.api.rest.model.Empleado;
 
+import java.io.Reader;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EmpleadoService {
 
     Empleado saveEmpleado(Empleado empleado);
 
+    List<ResultadoLoteEmpleado> saveEmpleados(List<Empleado> empleados);
+
+    ResumenImportacion importarEmpleados(Reader csv, char separador);
+
     List<Empleado> getAllEmpleados();
 
+    List<Empleado> getEmpleadosPaginados(long after, int limit);
+
+    List<Map<String, Object>> getCamposPaginados(List<String> campos, long after, int limit);
+
     Optional<Empleado> getEmpleadoById(long id);
 
+    Optional<Empleado> getEmpleadoByEmail(String email);
+
+    List<Empleado> buscarEmpleados(String consulta, int limite);
+
+    void exportarEmpleados(Consumer<Empleado> consumidor);
+
     Empleado updateEmpleado(Empleado empleadoActualizado);
 
-    void deleteEmpleado(long id);
+    boolean deleteEmpleado(long id);
+
+    int deleteEmpleados(List<Long> ids);
+
+    EstadisticasCache getEstadisticasCache();
+
+    String getVersionColeccion();
+
+    long getTotalEmpleados();
+
+    long reconciliarTotal();
 }
@@ -0,0 +1,49 @@
+package com.api.rest.service.impl;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+//cerrojos repartidos por id: serializa las escrituras de un mismo empleado sin un cerrojo por fila.
+//Varias ids se bloquean en orden creciente de cerrojo para no interbloquearse
+class BloqueosPorId {
+
+    private final ReentrantLock[] cerrojos;
+
+    BloqueosPorId(int tamano) {
+        cerrojos = new ReentrantLock[tamano];
+        for (int i = 0; i < tamano; i++) {
+            cerrojos[i] = new ReentrantLock();
+        }
+    }
+
+    <T> T conBloqueo(long id, Supplier<T> accion) {
+        ReentrantLock cerrojo = cerrojos[indice(id)];
+        cerrojo.lock();
+        try {
+            return accion.get();
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    <T> T conBloqueo(Collection<Long> ids, Supplier<T> accion) {
+        int[] indices = ids.stream().mapToInt(this::indice).distinct().sorted().toArray();
+        int bloqueados = 0;
+        try {
+            for (int indice : indices) {
+                cerrojos[indice].lock();
+                bloqueados++;
+            }
+            return accion.get();
+        } finally {
+            for (int i = bloqueados - 1; i >= 0; i--) {
+                cerrojos[indices[i]].unlock();
+            }
+        }
+    }
+
+    private int indice(long id) {
+        return Math.floorMod(Long.hashCode(id), cerrojos.length);
+    }
+}
@@ -0,0 +1,116 @@
+package com.api.rest.service.impl;
+
+import com.api.rest.exception.EmailDuplicadoException;
+import com.api.rest.exception.ResourceNotFoundException;
+import com.api.rest.exception.VersionConflictoException;
+import com.api.rest.model.Empleado;
+import com.api.rest.model.EmpleadoReactivo;
+import com.api.rest.repository.EmpleadoReactivoRepository;
+import com.api.rest.service.EmpleadoReactivoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@Profile("reactivo")
+public class EmpleadoReactivoServiceImpl implements EmpleadoReactivoService {
+
+    @Autowired
+    private EmpleadoReactivoRepository empleadoRepository;
+
+    @Value("${empleados.paginacion.tamano-maximo:1000}")
+    private int tamanoMaximoPagina;
+
+    //bloque de ids reservado en empleados_seq que aun no se ha repartido
+    private long siguienteId = 1;
+    private long ultimoIdBloque = 0;
+
+    @Override
+    public Mono<EmpleadoReactivo> saveEmpleado(EmpleadoReactivo empleado) {
+        //sin version Spring Data lo trata como nuevo aunque ya tenga id: INSERT
+        empleado.setVersion(null);
+        return reservarId()
+                .flatMap(id -> {
+                    empleado.setId(id);
+                    return empleadoRepository.save(empleado);
+                })
+                .onErrorMap(DuplicateKeyException.class,
+                        e -> new EmailDuplicadoException("Empleado con ese email ya existe:" + empleado.getEmail()));
+    }
+
+    //mismo reparto que el optimizador pooled de Hibernate: el valor leido de la secuencia es el ultimo id
+    //del bloque, asi los bloques de ambos lados nunca se solapan y no se pierde un bloque por alta
+    private Mono<Long> reservarId() {
+        synchronized (this) {
+            if (siguienteId <= ultimoIdBloque) {
+                return Mono.just(siguienteId++);
+            }
+        }
+        return empleadoRepository.siguienteId().map(ultimo -> {
+            synchronized (this) {
+                //si dos altas agotan el bloque a la vez, se queda el ultimo leido y el resto del otro se pierde
+                long primero = Math.max(1, ultimo - Empleado.IDS_POR_BLOQUE + 1);
+                siguienteId = primero + 1;
+                ultimoIdBloque = ultimo;
+                return primero;
+            }
+        });
+    }
+
+    @Override
+    public Flux<EmpleadoReactivo> getAllEmpleados() {
+        return getEmpleadosPaginados(0, tamanoMaximoPagina);
+    }
+
+    @Override
+    public Flux<EmpleadoReactivo> getEmpleadosPaginados(long after, int limit) {
+        int limite = Math.max(1, Math.min(limit, tamanoMaximoPagina));
+        return empleadoRepository.findPagina(after, limite);
+    }
+
+    @Override
+    public Flux<EmpleadoReactivo> exportarEmpleados() {
+        //las filas se piden al driver segun la demanda del cliente (backpressure)
+        return empleadoRepository.streamTodos();
+    }
+
+    @Override
+    public Mono<EmpleadoReactivo> getEmpleadoById(long id) {
+        return empleadoRepository.findById(id);
+    }
+
+    @Override
+    public Mono<EmpleadoReactivo> updateEmpleado(EmpleadoReactivo cambios) {
+        long id = cambios.getId();
+        return empleadoRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Empleado no encontrado:" + id)))
+                .flatMap(actual -> {
+                    if (cambios.getVersion() != null && !cambios.getVersion().equals(actual.getVersion())) {
+                        return Mono.error(new VersionConflictoException("El empleado " + id
+                                + " fue modificado por otra peticion, version enviada:" + cambios.getVersion()));
+                    }
+                    if (cambios.getNombre() != null) {
+                        actual.setNombre(cambios.getNombre());
+                    }
+                    if (cambios.getApellido() != null) {
+                        actual.setApellido(cambios.getApellido());
+                    }
+                    if (cambios.getEmail() != null) {
+                        actual.setEmail(cambios.getEmail());
+                    }
+                    //UPDATE ... WHERE id = ? AND version = ?: si otro lo cambio entre medio falla con 409
+                    return empleadoRepository.save(actual);
+                })
+                .onErrorMap(DuplicateKeyException.class,
+                        e -> new EmailDuplicadoException("Empleado con ese email ya existe:" + cambios.getEmail()));
+    }
+
+    @Override
+    public Mono<Boolean> deleteEmpleado(long id) {
+        return empleadoRepository.eliminarPorId(id).map(filas -> filas > 0);
+    }
+}
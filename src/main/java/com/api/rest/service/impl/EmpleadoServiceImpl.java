@@ -1,46 +1,566 @@
 package com.api.rest.service.impl;
 
+import com.api.rest.cache.EmpleadoCache;
+import com.api.rest.cambios.RegistroCambios;
+import com.api.rest.dto.CambioEmpleado;
+import com.api.rest.dto.EstadisticasCache;
+import com.api.rest.dto.ResultadoLoteEmpleado;
+import com.api.rest.dto.ResumenImportacion;
+import com.api.rest.exception.CampoInvalidoException;
+import com.api.rest.exception.EmailDuplicadoException;
 import com.api.rest.exception.ResourceNotFoundException;
+import com.api.rest.exception.VersionConflictoException;
+import com.api.rest.importacion.LectorCsv;
+import com.api.rest.indice.IndiceEmail;
+import com.api.rest.indice.IndiceTrigramas;
 import com.api.rest.model.Empleado;
+import com.api.rest.repository.EmpleadoCamposRepository;
 import com.api.rest.repository.EmpleadoRepository;
 import com.api.rest.service.EmpleadoService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 public class EmpleadoServiceImpl implements EmpleadoService {
 
+    private static final String RESTRICCION_EMAIL_UNICO = "uk_empleados_email";
+    private static final String METRICA_SERVICIO = "empleados.servicio";
+    private static final int MAXIMO_INCIDENCIAS_IMPORTACION = 100;
+
+    //contador de cambios de la tabla; el prefijo de arranque evita repetir ETags tras reiniciar
+    private final String arranque = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong cambiosColeccion = new AtomicLong();
+
+    //total de filas mantenido en cada alta y baja; se reconcilia con un COUNT al arrancar y periodicamente
+    private final AtomicLong totalEmpleados = new AtomicLong();
+    //seqlock de la reconciliacion: altas y bajas marcan el inicio antes de tocar la base de datos
+    //y el fin despues de ajustar totalEmpleados
+    private final AtomicLong escriturasIniciadas = new AtomicLong();
+    private final AtomicLong escriturasTerminadas = new AtomicLong();
+    private final BloqueosPorId bloqueos = new BloqueosPorId(256);
+    private volatile boolean totalReconciliado;
+
     @Autowired
     private EmpleadoRepository empleadoRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EmpleadoCache empleadoCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private IndiceTrigramas indiceTrigramas;
+
+    @Autowired
+    private IndiceEmail indiceEmail;
+
+    @Autowired
+    private RegistroCambios registroCambios;
+
+    @Value("${empleados.paginacion.tamano-maximo:1000}")
+    private int tamanoMaximoPagina;
+
+    @Value("${empleados.lote.tamano-chunk:500}")
+    private int tamanoChunk;
+
+    @Value("${empleados.busqueda.maximo-resultados:50}")
+    private int maximoResultadosBusqueda;
+
+    //tiempo de cada operacion etiquetado por resultado; el contador del timer da el throughput
+    private <T> T medir(String operacion, Supplier<T> llamada, Function<T, String> resultado) {
+        Timer.Sample muestra = Timer.start(meterRegistry);
+        String etiqueta = "error";
+        try {
+            T valor = llamada.get();
+            etiqueta = resultado.apply(valor);
+            return valor;
+        } catch (ResourceNotFoundException e) {
+            etiqueta = "not-found";
+            throw e;
+        } catch (EmailDuplicadoException | VersionConflictoException e) {
+            etiqueta = "conflict";
+            throw e;
+        } finally {
+            muestra.stop(meterRegistry.timer(METRICA_SERVICIO, "operacion", operacion, "resultado", etiqueta));
+        }
+    }
+
+    private void medir(String operacion, Runnable llamada) {
+        medir(operacion, () -> {
+            llamada.run();
+            return null;
+        }, valor -> "ok");
+    }
+
     @Override
     public Empleado saveEmpleado(Empleado empleado) {
-        Optional<Empleado> empleadoGuardado = empleadoRepository.findByEmail(empleado.getEmail());
-        if (empleadoGuardado.isPresent()){
-            throw new ResourceNotFoundException("Empleado con ese email ya existe:" + empleado.getEmail());
+        return medir("guardar", () -> escrituraContada(() -> guardar(empleado)), guardado -> "ok");
+    }
+
+    private Empleado guardar(Empleado empleado) {
+        //el indice solo descarta: un acierto se confirma en la base de datos antes de responder 409
+        if (indiceEmail.contiene(empleado.getEmail())) {
+            if (empleadoRepository.findByEmail(empleado.getEmail()).isPresent()) {
+                throw new EmailDuplicadoException("Empleado con ese email ya existe:" + empleado.getEmail());
+            }
+            indiceEmail.descartar(empleado.getEmail());
+        }
+        //un solo INSERT: el indice unico de email detecta el duplicado, incluso con peticiones concurrentes
+        empleado.setId(null);
+        empleado.setVersion(null);
+        try {
+            Empleado empleadoGuardado = empleadoRepository.saveAndFlush(empleado);
+            //el id pudo quedar en cache como inexistente
+            empleadoCache.invalidar(empleadoGuardado.getId());
+            indiceTrigramas.indexar(empleadoGuardado);
+            indiceEmail.registrar(empleadoGuardado);
+            registroCambios.publicar(CambioEmpleado.Tipo.ALTA, empleadoGuardado.getId(), empleadoGuardado);
+            totalEmpleados.incrementAndGet();
+            cambiosColeccion.incrementAndGet();
+            return empleadoGuardado;
+        } catch (DataIntegrityViolationException e) {
+            if (esEmailDuplicado(e)) {
+                throw new EmailDuplicadoException("Empleado con ese email ya existe:" + empleado.getEmail());
+            }
+            throw e;
+        }
+    }
+
+    private static boolean esEmailDuplicado(DataIntegrityViolationException e) {
+        if (e.getCause() instanceof ConstraintViolationException violacion && violacion.getConstraintName() != null) {
+            return violacion.getConstraintName().toLowerCase(Locale.ROOT).contains(RESTRICCION_EMAIL_UNICO);
+        }
+        return false;
+    }
+
+    @Override
+    public List<ResultadoLoteEmpleado> saveEmpleados(List<Empleado> empleados) {
+        List<ResultadoLoteEmpleado> resultados = medir("guardarLote", () -> guardarLote(empleados), lote -> "ok");
+        //filas del lote por estado (creado, conflicto, invalido)
+        Map<ResultadoLoteEmpleado.Estado, Integer> porEstado = new EnumMap<>(ResultadoLoteEmpleado.Estado.class);
+        resultados.forEach(resultado -> porEstado.merge(resultado.getEstado(), 1, Integer::sum));
+        porEstado.forEach((estado, filas) -> meterRegistry
+                .counter("empleados.lote.filas", "estado", estado.name().toLowerCase(Locale.ROOT))
+                .increment(filas));
+        return resultados;
+    }
+
+    private List<ResultadoLoteEmpleado> guardarLote(List<Empleado> empleados) {
+        List<ResultadoLoteEmpleado> resultados = new ArrayList<>(empleados.size());
+        Set<String> emailsVistos = new HashSet<>();
+        for (int inicio = 0; inicio < empleados.size(); inicio += tamanoChunk) {
+            List<Empleado> chunk = empleados.subList(inicio, Math.min(inicio + tamanoChunk, empleados.size()));
+            resultados.addAll(confirmarChunk(chunk, inicio, emailsVistos));
+        }
+        return resultados;
+    }
+
+    private List<ResultadoLoteEmpleado> confirmarChunk(List<Empleado> chunk, int desplazamiento, Set<String> emailsVistos) {
+        return escrituraContada(() -> confirmarChunkEnBd(chunk, desplazamiento, emailsVistos));
+    }
+
+    private List<ResultadoLoteEmpleado> confirmarChunkEnBd(List<Empleado> chunk, int desplazamiento, Set<String> emailsVistos) {
+        List<Empleado> creados = new ArrayList<>(chunk.size());
+        try {
+            //cada chunk se confirma en su propia transaccion
+            List<ResultadoLoteEmpleado> resultados = transactionTemplate.execute(
+                    estado -> guardarChunk(chunk, desplazamiento, emailsVistos, creados));
+            //solo se indexa lo que llego a confirmarse
+            creados.forEach(indiceTrigramas::indexar);
+            creados.forEach(indiceEmail::registrar);
+            creados.forEach(creado -> registroCambios.publicar(CambioEmpleado.Tipo.ALTA, creado.getId(), creado));
+            totalEmpleados.addAndGet(creados.size());
+            cambiosColeccion.incrementAndGet();
+            return resultados;
+        } catch (DataIntegrityViolationException e) {
+            //otro proceso inserto un email del chunk entre la consulta y el insert: se reintenta fila a fila
+            return guardarUnoAUno(chunk, desplazamiento);
+        }
+    }
+
+    @Override
+    public ResumenImportacion importarEmpleados(Reader csv, char separador) {
+        return medir("importar", () -> importar(csv, separador), resumen -> "ok");
+    }
+
+    //lee el CSV fila a fila y confirma cada tamanoChunk filas: en memoria solo hay un chunk
+    private ResumenImportacion importar(Reader csv, char separador) {
+        LectorCsv lector = new LectorCsv(csv instanceof BufferedReader ? csv : new BufferedReader(csv), separador);
+        ResumenImportacion resumen = new ResumenImportacion();
+        try {
+            List<String> cabecera = lector.leerFila();
+            int[] columnas = columnasCsv(cabecera);
+            List<Empleado> chunk = new ArrayList<>(tamanoChunk);
+            List<Long> lineas = new ArrayList<>(tamanoChunk);
+            List<String> fila;
+            while ((fila = lector.leerFila()) != null) {
+                if (fila.size() == 1 && fila.get(0).isBlank()) {
+                    continue;
+                }
+                chunk.add(Empleado.builder()
+                        .nombre(campoCsv(fila, columnas[0]))
+                        .apellido(campoCsv(fila, columnas[1]))
+                        .email(campoCsv(fila, columnas[2]))
+                        .build());
+                lineas.add(lector.getLinea());
+                if (chunk.size() == tamanoChunk) {
+                    acumular(resumen, confirmarChunk(chunk, 0, new HashSet<>()), lineas);
+                    chunk = new ArrayList<>(tamanoChunk);
+                    lineas.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                acumular(resumen, confirmarChunk(chunk, 0, new HashSet<>()), lineas);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return resumen;
+    }
+
+    private static int[] columnasCsv(List<String> cabecera) {
+        List<String> nombres = cabecera == null ? List.of()
+                : cabecera.stream().map(nombre -> nombre.trim().toLowerCase(Locale.ROOT)).toList();
+        int[] columnas = {nombres.indexOf("nombre"), nombres.indexOf("apellido"), nombres.indexOf("email")};
+        if (columnas[0] < 0 || columnas[1] < 0 || columnas[2] < 0) {
+            throw new CampoInvalidoException("La cabecera CSV debe incluir nombre, apellido y email:" + nombres);
+        }
+        return columnas;
+    }
+
+    //los campos vacios cuentan como ausentes y la fila queda invalida
+    private static String campoCsv(List<String> fila, int columna) {
+        if (columna >= fila.size()) {
+            return null;
+        }
+        String valor = fila.get(columna).trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    private static void acumular(ResumenImportacion resumen, List<ResultadoLoteEmpleado> resultados, List<Long> lineas) {
+        for (ResultadoLoteEmpleado resultado : resultados) {
+            resumen.setFilas(resumen.getFilas() + 1);
+            switch (resultado.getEstado()) {
+                case CREADO -> resumen.setAceptadas(resumen.getAceptadas() + 1);
+                case CONFLICTO -> resumen.setDuplicadas(resumen.getDuplicadas() + 1);
+                case INVALIDO -> resumen.setInvalidas(resumen.getInvalidas() + 1);
+            }
+            if (resultado.getEstado() != ResultadoLoteEmpleado.Estado.CREADO
+                    && resumen.getIncidencias().size() < MAXIMO_INCIDENCIAS_IMPORTACION) {
+                resumen.getIncidencias().add("linea " + lineas.get(resultado.getIndice()) + ": " + resultado.getMensaje());
+            }
+        }
+    }
+
+    private List<ResultadoLoteEmpleado> guardarChunk(List<Empleado> chunk, int desplazamiento, Set<String> emailsVistos,
+                                                     List<Empleado> creados) {
+        Set<String> emails = new HashSet<>();
+        chunk.forEach(empleado -> emails.add(empleado.getEmail()));
+        emails.remove(null);
+        //un solo SELECT ... IN para todo el chunk en vez de un findByEmail por fila
+        Set<String> existentes = emails.isEmpty()
+                ? Set.of()
+                : new HashSet<>(empleadoRepository.findEmailsExistentes(emails));
+
+        ResultadoLoteEmpleado[] resultados = new ResultadoLoteEmpleado[chunk.size()];
+        List<Empleado> nuevos = new ArrayList<>(chunk.size());
+        List<Integer> posicionesNuevos = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Empleado empleado = chunk.get(i);
+            String mensaje = validar(empleado);
+            if (mensaje != null) {
+                resultados[i] = ResultadoLoteEmpleado.invalido(desplazamiento + i, empleado.getEmail(), mensaje);
+            } else if (existentes.contains(empleado.getEmail()) || !emailsVistos.add(empleado.getEmail())) {
+                resultados[i] = ResultadoLoteEmpleado.conflicto(desplazamiento + i, empleado.getEmail());
+            } else {
+                empleado.setId(null);
+                empleado.setVersion(null);
+                nuevos.add(empleado);
+                posicionesNuevos.add(i);
+            }
+        }
+
+        empleadoRepository.saveAll(nuevos);
+        //los INSERT salen agrupados (hibernate.jdbc.batch_size) y se libera el contexto de persistencia
+        empleadoRepository.flush();
+        entityManager.clear();
+        creados.addAll(nuevos);
+        for (int j = 0; j < nuevos.size(); j++) {
+            int i = posicionesNuevos.get(j);
+            empleadoCache.invalidar(nuevos.get(j).getId());
+            resultados[i] = ResultadoLoteEmpleado.creado(desplazamiento + i, nuevos.get(j));
+        }
+        return List.of(resultados);
+    }
+
+    private List<ResultadoLoteEmpleado> guardarUnoAUno(List<Empleado> chunk, int desplazamiento) {
+        List<ResultadoLoteEmpleado> resultados = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Empleado empleado = chunk.get(i);
+            String mensaje = validar(empleado);
+            if (mensaje != null) {
+                resultados.add(ResultadoLoteEmpleado.invalido(desplazamiento + i, empleado.getEmail(), mensaje));
+                continue;
+            }
+            try {
+                resultados.add(ResultadoLoteEmpleado.creado(desplazamiento + i, guardar(empleado)));
+            } catch (EmailDuplicadoException | DataIntegrityViolationException e) {
+                resultados.add(ResultadoLoteEmpleado.conflicto(desplazamiento + i, empleado.getEmail()));
+            }
         }
-        return empleadoRepository.save(empleado);
+        return resultados;
+    }
+
+    private static String validar(Empleado empleado) {
+        if (empleado.getNombre() == null || empleado.getApellido() == null || empleado.getEmail() == null) {
+            return "nombre, apellido y email son obligatorios";
+        }
+        return null;
     }
 
     @Override
     public List<Empleado> getAllEmpleados() {
-        return empleadoRepository.findAll();
+        //sin cursor se devuelve solo la primera pagina de tamaño maximo
+        return medir("listar", () -> listar(0, tamanoMaximoPagina), pagina -> "ok");
+    }
+
+    @Override
+    public List<Empleado> getEmpleadosPaginados(long after, int limit) {
+        return medir("listar", () -> listar(after, limit), pagina -> "ok");
+    }
+
+    @Override
+    public List<Map<String, Object>> getCamposPaginados(List<String> campos, long after, int limit) {
+        List<String> desconocidos = campos.stream().filter(campo -> !EmpleadoCamposRepository.CAMPOS.contains(campo)).toList();
+        if (campos.isEmpty() || !desconocidos.isEmpty()) {
+            throw new CampoInvalidoException("Campos no permitidos:" + desconocidos + ", disponibles:"
+                    + EmpleadoCamposRepository.CAMPOS);
+        }
+        int limite = Math.max(1, Math.min(limit, tamanoMaximoPagina));
+        return medir("listarCampos", () -> empleadoRepository.findCamposPaginados(campos.stream().distinct().toList(), after, limite),
+                pagina -> "ok");
+    }
+
+    private List<Empleado> listar(long after, int limit) {
+        int limite = Math.max(1, Math.min(limit, tamanoMaximoPagina));
+        return empleadoRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limite));
     }
 
     @Override
     public Optional<Empleado> getEmpleadoById(long id) {
-        return empleadoRepository.findById(id);
+        return medir("obtener", () -> empleadoCache.obtener(id, empleadoRepository::findById),
+                empleado -> empleado.isPresent() ? "found" : "not-found");
+    }
+
+    @Override
+    public Optional<Empleado> getEmpleadoByEmail(String email) {
+        return medir("obtenerPorEmail", () -> obtenerPorEmail(email),
+                empleado -> empleado.isPresent() ? "found" : "not-found");
+    }
+
+    private Optional<Empleado> obtenerPorEmail(String email) {
+        if (!indiceEmail.isConstruido()) {
+            //durante la carga inicial el indice puede estar incompleto
+            return empleadoRepository.findByEmail(email);
+        }
+        Long id = indiceEmail.buscar(email);
+        if (id == null) {
+            return Optional.empty();
+        }
+        //el empleado sale de la cache por id; si su email ya no coincide la entrada esta desfasada
+        Optional<Empleado> porId = empleadoCache.obtener(id, empleadoRepository::findById)
+                .filter(empleado -> email.equals(empleado.getEmail()));
+        if (porId.isPresent()) {
+            return porId;
+        }
+        indiceEmail.descartar(email);
+        return empleadoRepository.findByEmail(email);
+    }
+
+    @Override
+    public List<Empleado> buscarEmpleados(String consulta, int limite) {
+        //se resuelve en el indice de trigramas, sin consultar la base de datos
+        int maximo = Math.max(1, Math.min(limite, maximoResultadosBusqueda));
+        return medir("buscar", () -> indiceTrigramas.buscar(consulta, maximo),
+                encontrados -> encontrados.isEmpty() ? "not-found" : "found");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportarEmpleados(Consumer<Empleado> consumidor) {
+        medir("exportar", () -> {
+            try (Stream<Empleado> empleados = empleadoRepository.streamTodos()) {
+                empleados.forEach(empleado -> {
+                    consumidor.accept(empleado);
+                    //se saca del contexto de persistencia para que el heap no crezca con la tabla
+                    entityManager.detach(empleado);
+                });
+            }
+        });
     }
 
     @Override
     public Empleado updateEmpleado(Empleado empleadoActualizado) {
-        return empleadoRepository.save(empleadoActualizado);
+        //el cerrojo por id cubre el UPDATE y la publicacion: el feed de cambios sigue el orden de commit de cada empleado
+        return medir("actualizar", () -> bloqueos.conBloqueo(empleadoActualizado.getId(),
+                () -> actualizar(empleadoActualizado)), actualizado -> "ok");
+    }
+
+    private Empleado actualizar(Empleado empleadoActualizado) {
+        long id = empleadoActualizado.getId();
+        try {
+            Empleado actualizado = transactionTemplate.execute(estado -> actualizarEnBd(id, empleadoActualizado));
+            indiceTrigramas.indexar(actualizado);
+            indiceEmail.registrar(actualizado);
+            registroCambios.publicar(CambioEmpleado.Tipo.MODIFICACION, id, actualizado);
+            return actualizado;
+        } catch (DataIntegrityViolationException e) {
+            if (esEmailDuplicado(e)) {
+                throw new EmailDuplicadoException("Empleado con ese email ya existe:" + empleadoActualizado.getEmail());
+            }
+            throw e;
+        } finally {
+            //despues del commit, para que ninguna lectura concurrente vuelva a cachear el valor viejo
+            empleadoCache.invalidar(id);
+            cambiosColeccion.incrementAndGet();
+        }
+    }
+
+    private Empleado actualizarEnBd(long id, Empleado cambios) {
+        //find (normalmente desde la cache L2) y un UPDATE por id; si el cliente envia la version, solo se aplica sobre esa version
+        int filas = cambios.getVersion() == null
+                ? empleadoRepository.actualizar(id, cambios.getNombre(), cambios.getApellido(), cambios.getEmail())
+                : empleadoRepository.actualizarConVersion(id, cambios.getNombre(), cambios.getApellido(),
+                        cambios.getEmail(), cambios.getVersion());
+        if (filas == 0) {
+            if (cambios.getVersion() != null && empleadoRepository.existsById(id)) {
+                throw new VersionConflictoException("El empleado " + id + " fue modificado por otra peticion, version enviada:"
+                        + cambios.getVersion());
+            }
+            throw new ResourceNotFoundException("Empleado no encontrado:" + id);
+        }
+        //se relee en la misma transaccion para devolver el estado y la version nuevos
+        return empleadoRepository.findById(id).orElseThrow();
+    }
+
+    @Override
+    public boolean deleteEmpleado(long id) {
+        return medir("eliminar", () -> escrituraContada(() -> bloqueos.conBloqueo(id, () -> {
+            //DELETE por id a traves de la entidad: solo se desaloja su entrada de la cache L2
+            int filas = empleadoRepository.eliminarPorId(id);
+            empleadoCache.invalidar(id);
+            indiceTrigramas.eliminar(id);
+            indiceEmail.eliminar(id);
+            if (filas > 0) {
+                registroCambios.publicar(CambioEmpleado.Tipo.BAJA, id, null);
+            }
+            totalEmpleados.addAndGet(-filas);
+            cambiosColeccion.incrementAndGet();
+            return filas > 0;
+        })), eliminado -> eliminado ? "ok" : "not-found");
+    }
+
+    @Override
+    public int deleteEmpleados(List<Long> ids) {
+        return medir("eliminarLote", () -> escrituraContada(() -> eliminarLote(ids)), eliminados -> "ok");
+    }
+
+    private int eliminarLote(List<Long> ids) {
+        List<Long> distintos = ids.stream().distinct().toList();
+        int eliminados = 0;
+        //una carga y un batch de DELETE por chunk para no superar el limite de parametros del driver
+        for (int inicio = 0; inicio < distintos.size(); inicio += tamanoChunk) {
+            List<Long> chunk = distintos.subList(inicio, Math.min(inicio + tamanoChunk, distintos.size()));
+            //eliminarPorIds devuelve los ids que existian, para publicar solo bajas reales
+            List<Long> existentes = bloqueos.conBloqueo(chunk, () -> {
+                List<Long> borrados = transactionTemplate.execute(estado -> empleadoRepository.eliminarPorIds(chunk));
+                borrados.forEach(borrado -> registroCambios.publicar(CambioEmpleado.Tipo.BAJA, borrado, null));
+                return borrados;
+            });
+            eliminados += existentes.size();
+            totalEmpleados.addAndGet(-existentes.size());
+            chunk.forEach(empleadoCache::invalidar);
+            chunk.forEach(indiceTrigramas::eliminar);
+            chunk.forEach(indiceEmail::eliminar);
+            cambiosColeccion.incrementAndGet();
+        }
+        return eliminados;
+    }
+
+    @Override
+    public long getTotalEmpleados() {
+        //O(1) sin consulta; solo antes de la primera reconciliacion se cuenta en la base de datos
+        return totalReconciliado ? totalEmpleados.get() : reconciliarTotal();
+    }
+
+    @Override
+    public long reconciliarTotal() {
+        long total = totalEmpleados.get();
+        long terminadas = escriturasTerminadas.get();
+        long iniciadas = escriturasIniciadas.get();
+        long contados = empleadoRepository.count();
+        //el COUNT solo vale si no habia altas ni bajas en curso y no empezo ninguna mientras se contaba;
+        //el compareAndSet descarta el resultado si alguna ajusto el contador despues
+        if (iniciadas == terminadas && escriturasIniciadas.get() == iniciadas
+                && totalEmpleados.compareAndSet(total, contados)) {
+            totalReconciliado = true;
+            return contados;
+        }
+        //se deja para la siguiente vuelta; hasta la primera reconciliacion se responde con el COUNT
+        return totalReconciliado ? totalEmpleados.get() : contados;
+    }
+
+    private <T> T escrituraContada(Supplier<T> escritura) {
+        escriturasIniciadas.incrementAndGet();
+        try {
+            return escritura.get();
+        } finally {
+            escriturasTerminadas.incrementAndGet();
+        }
+    }
+
+    @Override
+    public String getVersionColeccion() {
+        return arranque + "-" + cambiosColeccion.get();
     }
 
     @Override
-    public void deleteEmpleado(long id) {
-        empleadoRepository.deleteById(id);
+    public EstadisticasCache getEstadisticasCache() {
+        return empleadoCache.estadisticas();
     }
 }
@@ -0,0 +1,49 @@
+package com.api.rest.web;
+
+import com.api.rest.config.ContadorSentencias;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+//sentencias SQL por peticion: un salto en el p99 de este resumen delata un N+1
+//la exportacion NDJSON escribe en otro hilo, sus sentencias no entran aqui
+@Component
+public class ContadorSentenciasFilter extends OncePerRequestFilter {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public ContadorSentenciasFilter(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/empleados");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContadorSentencias.reiniciar();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int sentencias = ContadorSentencias.recoger();
+            Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            meterRegistry.ifAvailable(registry -> DistributionSummary.builder("empleados.peticion.sentencias")
+                    .tag("metodo", request.getMethod())
+                    .tag("uri", patron != null ? patron.toString() : "desconocida")
+                    .register(registry)
+                    .record(sentencias));
+        }
+    }
+}
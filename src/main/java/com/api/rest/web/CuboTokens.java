@@ -0,0 +1,35 @@
+package com.api.rest.web;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+//token bucket sin bloqueos: el estado (tokens, instante) es inmutable y se reemplaza con compareAndSet
+class CuboTokens {
+
+    private record Estado(double tokens, long instanteNanos) {
+    }
+
+    private final double capacidad;
+    private final double tokensPorNano;
+    private final AtomicReference<Estado> estado;
+
+    CuboTokens(double capacidad, double tokensPorSegundo) {
+        this.capacidad = capacidad;
+        this.tokensPorNano = tokensPorSegundo / 1_000_000_000d;
+        this.estado = new AtomicReference<>(new Estado(capacidad, System.nanoTime()));
+    }
+
+    //0 si se consumio un token; si no, nanosegundos hasta que haya uno disponible
+    long consumir() {
+        while (true) {
+            Estado actual = estado.get();
+            long ahora = System.nanoTime();
+            double tokens = Math.min(capacidad, actual.tokens() + (ahora - actual.instanteNanos()) * tokensPorNano);
+            if (tokens < 1) {
+                return (long) Math.ceil((1 - tokens) / tokensPorNano);
+            }
+            if (estado.compareAndSet(actual, new Estado(tokens - 1, ahora))) {
+                return 0;
+            }
+        }
+    }
+}
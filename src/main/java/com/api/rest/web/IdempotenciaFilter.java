@@ -0,0 +1,242 @@
+package com.api.rest.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+//Idempotency-Key en POST /api/empleados y PUT /api/empleados/{id}: la primera peticion con una clave se ejecuta y su respuesta se guarda;
+//los reintentos con la misma clave se responden desde memoria y los concurrentes esperan a la primera
+@Component
+public class IdempotenciaFilter extends OncePerRequestFilter {
+
+    public static final String CABECERA_CLAVE = "Idempotency-Key";
+    public static final String CABECERA_REPETIDA = "Idempotent-Replayed";
+
+    //solo el alta y la actualizacion de un empleado: /import y /batch pueden traer cientos de MB
+    //que no se deben cargar en memoria, y el multipart necesita el stream original para getParts()
+    private static final Pattern RUTA_ALTA = Pattern.compile("/api/empleados/?");
+    private static final Pattern RUTA_ACTUALIZACION = Pattern.compile("/api/empleados/\\d+");
+
+    private record Respuesta(String huella, int estado, Map<String, List<String>> cabeceras, byte[] cuerpo) {
+    }
+
+    //el futuro se publica antes de ejecutar para que los duplicados concurrentes se junten en el
+    private final Cache<String, CompletableFuture<Respuesta>> respuestas;
+    private final long esperaMaximaMs;
+    //el cuerpo se guarda entero en memoria para la huella: un alta o actualizacion normal ocupa unos cientos de bytes
+    private final int tamanoMaximoCuerpo;
+
+    public IdempotenciaFilter(@Value("${empleados.idempotencia.maximo-entradas:10000}") long maximoEntradas,
+                              @Value("${empleados.idempotencia.ttl:1h}") Duration ttl,
+                              @Value("${empleados.idempotencia.espera-maxima:10s}") Duration esperaMaxima,
+                              @Value("${empleados.idempotencia.tamano-maximo-cuerpo:64KB}") DataSize tamanoMaximoCuerpo) {
+        this.respuestas = Caffeine.newBuilder()
+                .maximumSize(maximoEntradas)
+                .expireAfterWrite(ttl)
+                .build();
+        this.esperaMaximaMs = esperaMaxima.toMillis();
+        this.tamanoMaximoCuerpo = Math.toIntExact(tamanoMaximoCuerpo.toBytes());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (request.getHeader(CABECERA_CLAVE) == null) {
+            return true;
+        }
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        return switch (request.getMethod()) {
+            case "POST" -> !RUTA_ALTA.matcher(ruta).matches();
+            case "PUT" -> !RUTA_ACTUALIZACION.matcher(ruta).matches();
+            default -> true;
+        };
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        //se lee como mucho un byte de mas que el limite: sin Content-Length (chunked) tampoco se carga mas
+        byte[] cuerpo = request.getContentLengthLong() > tamanoMaximoCuerpo
+                ? null : request.getInputStream().readNBytes(tamanoMaximoCuerpo + 1);
+        if (cuerpo == null || cuerpo.length > tamanoMaximoCuerpo) {
+            responderError(response, HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Cuerpo demasiado grande para una peticion con Idempotency-Key, maximo " + tamanoMaximoCuerpo + " bytes");
+            return;
+        }
+        String huella = huella(request, cuerpo);
+        String clave = request.getHeader(CABECERA_CLAVE);
+
+        CompletableFuture<Respuesta> nueva = new CompletableFuture<>();
+        CompletableFuture<Respuesta> existente = respuestas.asMap().putIfAbsent(clave, nueva);
+        if (existente != null) {
+            responderDuplicada(existente, huella, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper envoltorio = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(new PeticionConCuerpo(request, cuerpo), envoltorio);
+        } catch (ServletException | IOException | RuntimeException e) {
+            descartar(clave, nueva, e);
+            throw e;
+        }
+        //los 5xx no se recuerdan: el reintento debe volver a ejecutarse
+        if (envoltorio.getStatus() >= 500) {
+            descartar(clave, nueva, new IllegalStateException("La peticion original respondio " + envoltorio.getStatus()));
+        } else {
+            Map<String, List<String>> cabeceras = new LinkedHashMap<>();
+            for (String nombre : envoltorio.getHeaderNames()) {
+                cabeceras.put(nombre, new ArrayList<>(envoltorio.getHeaders(nombre)));
+            }
+            if (envoltorio.getContentType() != null) {
+                cabeceras.put(HttpHeaders.CONTENT_TYPE, List.of(envoltorio.getContentType()));
+            }
+            nueva.complete(new Respuesta(huella, envoltorio.getStatus(), cabeceras, envoltorio.getContentAsByteArray()));
+        }
+        envoltorio.copyBodyToResponse();
+    }
+
+    private void descartar(String clave, CompletableFuture<Respuesta> futura, Exception causa) {
+        respuestas.asMap().remove(clave, futura);
+        futura.completeExceptionally(causa);
+    }
+
+    private void responderDuplicada(CompletableFuture<Respuesta> existente, String huella, HttpServletResponse response)
+            throws IOException {
+        Respuesta guardada;
+        try {
+            guardada = existente.get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            responderError(response, HttpStatus.CONFLICT, "Hay una peticion en curso con la misma Idempotency-Key");
+            return;
+        } catch (ExecutionException e) {
+            //la original fallo y su clave ya se libero: el cliente puede reintentar
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            responderError(response, HttpStatus.SERVICE_UNAVAILABLE, "La peticion original con esta Idempotency-Key fallo");
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            responderError(response, HttpStatus.SERVICE_UNAVAILABLE, "Peticion interrumpida");
+            return;
+        }
+        //misma clave con otra peticion: es un error del cliente, no un reintento
+        if (!guardada.huella().equals(huella)) {
+            responderError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    "La Idempotency-Key ya se uso con una peticion distinta");
+            return;
+        }
+        response.setStatus(guardada.estado());
+        guardada.cabeceras().forEach((nombre, valores) -> valores.forEach(valor -> response.addHeader(nombre, valor)));
+        response.setHeader(CABECERA_REPETIDA, "true");
+        response.setContentLength(guardada.cuerpo().length);
+        response.getOutputStream().write(guardada.cuerpo());
+    }
+
+    private static void responderError(HttpServletResponse response, HttpStatus estado, String mensaje) throws IOException {
+        response.setStatus(estado.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"mensaje\":\"" + mensaje + "\"}");
+    }
+
+    //metodo, ruta y cuerpo: detecta que se reutiliza una clave para otra operacion
+    private static String huella(HttpServletRequest request, byte[] cuerpo) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update((request.getMethod() + " " + request.getRequestURI() + "?" + request.getQueryString() + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(sha.digest(cuerpo));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    //el cuerpo ya se leyo para la huella: se vuelve a ofrecer al resto de la cadena
+    private static class PeticionConCuerpo extends HttpServletRequestWrapper {
+
+        private final byte[] cuerpo;
+
+        PeticionConCuerpo(HttpServletRequest request, byte[] cuerpo) {
+            super(request);
+            this.cuerpo = cuerpo;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream entrada = new ByteArrayInputStream(cuerpo);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return entrada.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    //el cuerpo ya esta en memoria: todo esta disponible de inmediato
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return entrada.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return entrada.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.api.rest.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+//limite de peticiones por cliente y por clase (lectura/escritura): un cliente que satura listarEmpleados
+//recibe 429 sin llegar a ocupar conexiones del pool que necesitan los demas.
+//El cliente es la IP remota: una cabecera enviada por el propio cliente se podria cambiar en cada peticion
+//para estrenar cubo. Detras de un proxy hay que activar server.forward-headers-strategy para que
+//getRemoteAddr devuelva la IP original que informa el proxy de confianza
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "empleados.admision.tasa.habilitada", havingValue = "true", matchIfMissing = true)
+public class LimitadorTasaFilter extends OncePerRequestFilter {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final double lecturasPorSegundo;
+    private final double rafagaLecturas;
+    private final double escriturasPorSegundo;
+    private final double rafagaEscrituras;
+    //un cubo por cliente y clase; los clientes inactivos se desalojan
+    private final Cache<String, CuboTokens> cubos;
+
+    public LimitadorTasaFilter(ObjectProvider<MeterRegistry> meterRegistry,
+                               @Value("${empleados.admision.lectura.por-segundo:200}") double lecturasPorSegundo,
+                               @Value("${empleados.admision.lectura.rafaga:400}") double rafagaLecturas,
+                               @Value("${empleados.admision.escritura.por-segundo:50}") double escriturasPorSegundo,
+                               @Value("${empleados.admision.escritura.rafaga:100}") double rafagaEscrituras,
+                               @Value("${empleados.admision.maximo-clientes:100000}") long maximoClientes) {
+        this.meterRegistry = meterRegistry;
+        this.lecturasPorSegundo = lecturasPorSegundo;
+        this.rafagaLecturas = rafagaLecturas;
+        this.escriturasPorSegundo = escriturasPorSegundo;
+        this.rafagaEscrituras = rafagaEscrituras;
+        this.cubos = Caffeine.newBuilder()
+                .maximumSize(maximoClientes)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/empleados");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String clase = claseDe(request);
+        CuboTokens cubo = cubos.get(request.getRemoteAddr() + "|" + clase, clave -> "lectura".equals(clase)
+                ? new CuboTokens(rafagaLecturas, lecturasPorSegundo)
+                : new CuboTokens(rafagaEscrituras, escriturasPorSegundo));
+        long esperaNanos = cubo.consumir();
+        //admitidas y limitadas con las mismas etiquetas: la proporcion de 429 sale de dividir ambas series
+        meterRegistry.ifAvailable(registry -> registry.counter("empleados.admision",
+                "clase", clase, "resultado", esperaNanos > 0 ? "limitada" : "admitida").increment());
+        if (esperaNanos > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER,
+                    Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(esperaNanos + 999_999_999))));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value());
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    static String claseDe(HttpServletRequest request) {
+        return "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()) ? "lectura" : "escritura";
+    }
+}
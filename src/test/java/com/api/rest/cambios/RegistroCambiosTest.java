@@ -0,0 +1,117 @@
+package com.api.rest.cambios;
+
+import com.api.rest.dto.CambioEmpleado;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RegistroCambiosTest {
+
+    //emisor sin servlet: guarda los ids enviados y puede bloquear el envio como un cliente que no lee
+    private static class EmisorDePrueba extends SseEmitter {
+        private final List<String> ids = new CopyOnWriteArrayList<>();
+        private final CountDownLatch desbloqueo;
+        private final CountDownLatch enviando = new CountDownLatch(1);
+        private volatile boolean completado;
+
+        EmisorDePrueba(CountDownLatch desbloqueo) {
+            this.desbloqueo = desbloqueo;
+        }
+
+        @Override
+        public void send(SseEventBuilder evento) throws IOException {
+            enviando.countDown();
+            try {
+                desbloqueo.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            evento.build().stream()
+                    .map(parte -> parte.getData().toString())
+                    .filter(texto -> texto.startsWith("id:"))
+                    .forEach(texto -> ids.add(texto.substring(3, texto.indexOf('\n'))));
+        }
+
+        @Override
+        public void complete() {
+            completado = true;
+        }
+    }
+
+    private RegistroCambios registroCambios;
+
+    @BeforeEach
+    void setup() {
+        registroCambios = new RegistroCambios(10, Duration.ofMinutes(1), 2, Duration.ofMillis(100));
+    }
+
+    @AfterEach
+    void cerrar() {
+        registroCambios.cerrar();
+    }
+
+    private static void esperar(CountDownLatch condicion) throws InterruptedException {
+        assertThat(condicion.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static void esperarIds(EmisorDePrueba emisor, String... ids) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (emisor.ids.size() < ids.length && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        assertThat(emisor.ids).containsExactly(ids);
+    }
+
+    @DisplayName("Test para enviar por SSE los cambios posteriores a la secuencia y los nuevos en orden")
+    @Test
+    void testEnviarCambiosDesdeSecuencia() throws Exception {
+        //given
+        registroCambios.publicar(CambioEmpleado.Tipo.BAJA, 1L, null);
+        registroCambios.publicar(CambioEmpleado.Tipo.BAJA, 2L, null);
+        registroCambios.publicar(CambioEmpleado.Tipo.BAJA, 3L, null);
+        EmisorDePrueba emisor = new EmisorDePrueba(new CountDownLatch(0));
+        //when
+        registroCambios.registrar(emisor, 1L);
+        esperarIds(emisor, "2", "3");
+        registroCambios.publicar(CambioEmpleado.Tipo.BAJA, 4L, null);
+        //then
+        esperarIds(emisor, "2", "3", "4");
+    }
+
+    @DisplayName("Test para descartar un suscriptor bloqueado sin retrasar a los demas")
+    @Test
+    void testDescartarSuscriptorBloqueado() throws Exception {
+        //given
+        CountDownLatch desbloqueo = new CountDownLatch(1);
+        EmisorDePrueba lento = new EmisorDePrueba(desbloqueo);
+        EmisorDePrueba rapido = new EmisorDePrueba(new CountDownLatch(0));
+        registroCambios.registrar(lento, 0L);
+        registroCambios.registrar(rapido, 0L);
+        registroCambios.publicar(CambioEmpleado.Tipo.BAJA, 1L, null);
+        esperar(lento.enviando);
+        esperarIds(rapido, "1");
+        //when
+        Thread.sleep(150);
+        registroCambios.publicar(CambioEmpleado.Tipo.BAJA, 2L, null);
+        //then
+        esperarIds(rapido, "1", "2");
+        desbloqueo.countDown();
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!lento.completado && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        assertThat(lento.completado).isTrue();
+        assertThat(lento.ids).containsExactly("1");
+    }
+}
@@ -0,0 +1,178 @@
+package com.api.rest.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//mezcla de operaciones contra la API en un puerto aleatorio; falla si p95/p99 o el throughput empeoran respecto a la linea base
+//./mvnw test -Pcarga -Dtest=EmpleadoCargaTest -Dcarga.clientes=64 -Dcarga.mezcla=get:60,list:20,create:10,update:8,delete:2
+//los resultados quedan en target/carga (resultados.properties y un .hgrm por operacion). La primera ejecucion sin
+//src/test/resources/carga/linea-base.properties la graba con sus medidas y pasa; para renovarla se borra ese fichero.
+//una linea base medida con otra configuracion hace fallar la prueba en vez de comparar contra otra carga
+@Tag("carga")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.url=jdbc:h2:mem:carga-mezcla", "empleados.admision.tasa.habilitada=false",
+                "empleados.admision.concurrencia.habilitada=false"})
+public class EmpleadoCargaTest {
+
+    private static final int CLIENTES = Integer.getInteger("carga.clientes", 32);
+    private static final int EMPLEADOS = Integer.getInteger("carga.empleados", 10_000);
+    private static final Duration CALENTAMIENTO = Duration.ofSeconds(Long.getLong("carga.calentamiento-s", 5));
+    private static final Duration DURACION = Duration.ofSeconds(Long.getLong("carga.duracion-s", 20));
+    private static final String MEZCLA = System.getProperty("carga.mezcla", "get:60,list:20,create:10,update:8,delete:2");
+    private static final double TOLERANCIA = Double.parseDouble(System.getProperty("carga.tolerancia", "0.25"));
+    private static final Path DIRECTORIO_RESULTADOS = Path.of("target", "carga");
+    private static final Path LINEA_BASE = Path.of("src", "test", "resources", "carga", "linea-base.properties");
+
+    @LocalServerPort
+    private int puerto;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @DisplayName("Test de carga: la latencia y el throughput no empeoran respecto a la linea base")
+    @Test
+    void testLatenciaNoEmpeoraRespectoALineaBase() throws Exception {
+        GeneradorCarga generador = new GeneradorCarga("http://localhost:" + puerto);
+        List<Long> sembrados = generador.sembrarEmpleados(EMPLEADOS);
+        assertThat(sembrados).hasSize(EMPLEADOS);
+
+        List<GeneradorCarga.Operacion> mezcla = crearMezcla(generador, sembrados);
+        generador.ejecutar("calentamiento", CLIENTES, CALENTAMIENTO, mezcla);
+        GeneradorCarga.Resultado resultado = generador.ejecutar("carga", CLIENTES, DURACION, mezcla);
+        System.out.printf("clientes=%d empleados=%d mezcla=%s%n", CLIENTES, EMPLEADOS, MEZCLA);
+        System.out.println(resultado);
+
+        Properties medidas = resultado.comoPropiedades();
+        medidas.setProperty("carga.clientes", Integer.toString(CLIENTES));
+        medidas.setProperty("carga.empleados", Integer.toString(EMPLEADOS));
+        medidas.setProperty("carga.mezcla", MEZCLA);
+        guardarResultados(resultado, medidas);
+
+        assertThat(resultado.errores()).isZero();
+        Properties lineaBase = cargarLineaBase();
+        if (lineaBase == null) {
+            grabarLineaBase(medidas);
+            System.out.println("Sin linea base: se graba esta ejecucion en " + LINEA_BASE.toAbsolutePath());
+            return;
+        }
+        for (String configuracion : List.of("carga.clientes", "carga.empleados", "carga.mezcla")) {
+            assertThat(lineaBase.getProperty(configuracion))
+                    .as("La linea base se midio con otro %s, borrar %s para medir una nueva", configuracion, LINEA_BASE)
+                    .isEqualTo(medidas.getProperty(configuracion));
+        }
+        assertThat(compararConLineaBase(medidas, lineaBase)).isEmpty();
+    }
+
+    //cada entrada de carga.mezcla es operacion:peso; los borrados consumen empleados creados durante la prueba
+    private List<GeneradorCarga.Operacion> crearMezcla(GeneradorCarga generador, List<Long> sembrados) {
+        AtomicLong secuencia = new AtomicLong();
+        ConcurrentLinkedQueue<Long> creados = new ConcurrentLinkedQueue<>();
+        List<GeneradorCarga.Operacion> mezcla = new ArrayList<>();
+        for (String entrada : MEZCLA.split(",")) {
+            String[] partes = entrada.trim().split(":");
+            String operacion = partes[0];
+            int peso = Integer.parseInt(partes[1]);
+            switch (operacion) {
+                case "get" -> mezcla.add(new GeneradorCarga.Operacion(operacion, peso,
+                        aleatorio -> generador.get("/api/empleados/" + sembrados.get(aleatorio.nextInt(sembrados.size())))));
+                case "list" -> mezcla.add(new GeneradorCarga.Operacion(operacion, peso,
+                        aleatorio -> generador.get("/api/empleados?limit=20&after=" + aleatorio.nextInt(EMPLEADOS))));
+                case "create" -> mezcla.add(new GeneradorCarga.Operacion(operacion, peso,
+                        aleatorio -> {
+                            long n = secuencia.incrementAndGet();
+                            return generador.post("/api/empleados", "{\"nombre\":\"Carga" + n
+                                    + "\",\"apellido\":\"Prueba\",\"email\":\"carga" + n + "@email.com\"}");
+                        },
+                        respuesta -> {
+                            try {
+                                creados.add(objectMapper.readTree(respuesta.body()).path("id").asLong());
+                            } catch (Exception e) {
+                                throw new IllegalStateException(e);
+                            }
+                        }));
+                case "update" -> mezcla.add(new GeneradorCarga.Operacion(operacion, peso,
+                        aleatorio -> generador.patch("/api/empleados/" + sembrados.get(aleatorio.nextInt(sembrados.size())),
+                                "{\"apellido\":\"Actualizado" + secuencia.incrementAndGet() + "\"}")));
+                //sin creados pendientes el borrado apunta a un id inexistente y cuenta como 4xx
+                case "delete" -> mezcla.add(new GeneradorCarga.Operacion(operacion, peso,
+                        aleatorio -> {
+                            Long id = creados.poll();
+                            return generador.delete("/api/empleados/" + (id != null ? id : -1));
+                        }));
+                default -> throw new IllegalArgumentException("Operacion de carga desconocida: " + operacion);
+            }
+        }
+        return mezcla;
+    }
+
+    private void guardarResultados(GeneradorCarga.Resultado resultado, Properties medidas) throws Exception {
+        Files.createDirectories(DIRECTORIO_RESULTADOS);
+        try (OutputStream salida = Files.newOutputStream(DIRECTORIO_RESULTADOS.resolve("resultados.properties"))) {
+            medidas.store(salida, "clientes=" + CLIENTES + " empleados=" + EMPLEADOS + " mezcla=" + MEZCLA);
+        }
+        //distribucion completa en milisegundos, se puede pintar con el HdrHistogram plotter
+        resultado.histogramas().forEach((operacion, histograma) -> {
+            try (PrintStream salida = new PrintStream(Files.newOutputStream(DIRECTORIO_RESULTADOS.resolve(operacion + ".hgrm")))) {
+                histograma.outputPercentileDistribution(salida, 1000.0);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private void grabarLineaBase(Properties medidas) throws Exception {
+        Files.createDirectories(LINEA_BASE.getParent());
+        try (OutputStream salida = Files.newOutputStream(LINEA_BASE)) {
+            medidas.store(salida, "linea base medida con clientes=" + CLIENTES + " empleados=" + EMPLEADOS + " mezcla=" + MEZCLA);
+        }
+    }
+
+    //se lee del arbol de fuentes y no del classpath, que puede tener una copia anterior a un borrado; null si no hay
+    private Properties cargarLineaBase() throws Exception {
+        if (!Files.exists(LINEA_BASE)) {
+            return null;
+        }
+        try (InputStream entrada = Files.newInputStream(LINEA_BASE)) {
+            Properties lineaBase = new Properties();
+            lineaBase.load(entrada);
+            return lineaBase;
+        }
+    }
+
+    //solo se comparan percentiles altos y throughput; las metricas que no estan en la linea base se ignoran
+    private List<String> compararConLineaBase(Properties medidas, Properties lineaBase) {
+        List<String> regresiones = new ArrayList<>();
+        for (String clave : lineaBase.stringPropertyNames()) {
+            String medido = medidas.getProperty(clave);
+            boolean metrica = clave.endsWith(".throughput") || clave.endsWith(".p95.ms") || clave.endsWith(".p99.ms");
+            if (medido == null || !metrica) {
+                continue;
+            }
+            double base = Double.parseDouble(lineaBase.getProperty(clave));
+            double valor = Double.parseDouble(medido);
+            if (clave.endsWith(".throughput") && valor < base * (1 - TOLERANCIA)) {
+                regresiones.add(clave + ": " + valor + " < " + base + " (-" + (int) (TOLERANCIA * 100) + "%)");
+            } else if ((clave.endsWith(".p95.ms") || clave.endsWith(".p99.ms")) && valor > base * (1 + TOLERANCIA)) {
+                regresiones.add(clave + ": " + valor + " > " + base + " (+" + (int) (TOLERANCIA * 100) + "%)");
+            }
+        }
+        return regresiones;
+    }
+}
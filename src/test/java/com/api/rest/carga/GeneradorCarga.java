@@ -0,0 +1,257 @@
+package com.api.rest.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+//lanza N clientes concurrentes contra la API durante un tiempo fijo y registra latencias en histogramas HDR
+class GeneradorCarga {
+
+    //latencias en microsegundos, hasta 60 s con 3 digitos significativos
+    private static final long LATENCIA_MAXIMA_US = 60_000_000L;
+    private static final int DIGITOS_SIGNIFICATIVOS = 3;
+
+    //una operacion de la mezcla: su peso relativo, como construir la peticion y que hacer con la respuesta
+    record Operacion(String nombre, int peso, Function<ThreadLocalRandom, HttpRequest> peticion,
+                     Consumer<HttpResponse<String>> alResponder) {
+
+        Operacion(String nombre, int peso, Function<ThreadLocalRandom, HttpRequest> peticion) {
+            this(nombre, peso, peticion, null);
+        }
+    }
+
+    static class Resultado {
+
+        private final String modo;
+        private final Map<String, Histogram> histogramas;
+        private final Histogram total;
+        private final Map<String, Long> rechazadas;
+        private final long errores;
+        private final double segundos;
+
+        Resultado(String modo, Map<String, Histogram> histogramas, Map<String, Long> rechazadas, long errores, double segundos) {
+            this.modo = modo;
+            this.histogramas = histogramas;
+            this.rechazadas = rechazadas;
+            this.errores = errores;
+            this.segundos = segundos;
+            this.total = new Histogram(LATENCIA_MAXIMA_US, DIGITOS_SIGNIFICATIVOS);
+            histogramas.values().forEach(total::add);
+        }
+
+        Map<String, Histogram> histogramas() {
+            return histogramas;
+        }
+
+        long peticiones() {
+            return total.getTotalCount();
+        }
+
+        long errores() {
+            return errores;
+        }
+
+        double peticionesPorSegundo() {
+            return total.getTotalCount() / segundos;
+        }
+
+        double percentilMs(double percentil) {
+            return total.getValueAtPercentile(percentil) / 1000.0;
+        }
+
+        //metricas planas para guardar y comparar con la linea base
+        Properties comoPropiedades() {
+            Properties propiedades = new Properties();
+            Map<String, Histogram> todas = new LinkedHashMap<>(histogramas);
+            todas.put("total", total);
+            todas.forEach((operacion, histograma) -> {
+                propiedades.setProperty(operacion + ".p50.ms", formatear(histograma.getValueAtPercentile(50) / 1000.0));
+                propiedades.setProperty(operacion + ".p95.ms", formatear(histograma.getValueAtPercentile(95) / 1000.0));
+                propiedades.setProperty(operacion + ".p99.ms", formatear(histograma.getValueAtPercentile(99) / 1000.0));
+                propiedades.setProperty(operacion + ".throughput", formatear(histograma.getTotalCount() / segundos));
+            });
+            return propiedades;
+        }
+
+        private static String formatear(double valor) {
+            return String.format(java.util.Locale.ROOT, "%.2f", valor);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder texto = new StringBuilder(String.format(java.util.Locale.ROOT,
+                    "%-12s peticiones=%d errores=%d throughput=%.1f req/s p50=%.2f ms p99=%.2f ms",
+                    modo, peticiones(), errores, peticionesPorSegundo(), percentilMs(50), percentilMs(99)));
+            histogramas.forEach((operacion, histograma) -> texto.append(String.format(java.util.Locale.ROOT,
+                    "%n  %-8s n=%d 4xx=%d p50=%.2f ms p95=%.2f ms p99=%.2f ms max=%.2f ms",
+                    operacion, histograma.getTotalCount(), rechazadas.getOrDefault(operacion, 0L),
+                    histograma.getValueAtPercentile(50) / 1000.0, histograma.getValueAtPercentile(95) / 1000.0,
+                    histograma.getValueAtPercentile(99) / 1000.0, histograma.getMaxValue() / 1000.0)));
+            return texto.toString();
+        }
+    }
+
+    private final HttpClient cliente = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String urlBase;
+
+    GeneradorCarga(String urlBase) {
+        this.urlBase = urlBase;
+    }
+
+    //inserta empleados con el endpoint batch y devuelve los ids creados
+    List<Long> sembrarEmpleados(int cantidad) throws Exception {
+        List<Long> ids = new ArrayList<>(cantidad);
+        for (int inicio = 0; inicio < cantidad; inicio += 1000) {
+            StringBuilder cuerpo = new StringBuilder("[");
+            for (int i = inicio; i < Math.min(inicio + 1000, cantidad); i++) {
+                if (i > inicio) {
+                    cuerpo.append(',');
+                }
+                cuerpo.append("{\"nombre\":\"Nombre").append(i)
+                        .append("\",\"apellido\":\"Apellido").append(i)
+                        .append("\",\"email\":\"semilla").append(i).append("@email.com\"}");
+            }
+            cuerpo.append(']');
+            HttpResponse<String> respuesta = cliente.send(post("/api/empleados/batch", cuerpo.toString()),
+                    HttpResponse.BodyHandlers.ofString());
+            if (respuesta.statusCode() != 200) {
+                throw new IllegalStateException("No se pudieron sembrar empleados: " + respuesta.statusCode());
+            }
+            for (JsonNode resultado : objectMapper.readTree(respuesta.body())) {
+                if ("CREADO".equals(resultado.path("estado").asText())) {
+                    ids.add(resultado.path("id").asLong());
+                }
+            }
+        }
+        return ids;
+    }
+
+    //cada cliente elige operaciones segun su peso hasta agotar la duracion
+    Resultado ejecutar(String modo, int clientes, Duration duracion, List<Operacion> mezcla) throws InterruptedException {
+        int[] pesosAcumulados = new int[mezcla.size()];
+        int pesoTotal = 0;
+        for (int i = 0; i < mezcla.size(); i++) {
+            pesoTotal += mezcla.get(i).peso();
+            pesosAcumulados[i] = pesoTotal;
+        }
+        int sumaPesos = pesoTotal;
+
+        long fin = System.nanoTime() + duracion.toNanos();
+        List<Histogram[]> histogramasPorCliente = new ArrayList<>();
+        long[][] rechazadasPorCliente = new long[clientes][mezcla.size()];
+        AtomicLong errores = new AtomicLong();
+        CountDownLatch terminados = new CountDownLatch(clientes);
+        long inicio = System.nanoTime();
+        for (int c = 0; c < clientes; c++) {
+            Histogram[] histogramas = new Histogram[mezcla.size()];
+            for (int i = 0; i < histogramas.length; i++) {
+                histogramas[i] = new Histogram(LATENCIA_MAXIMA_US, DIGITOS_SIGNIFICATIVOS);
+            }
+            histogramasPorCliente.add(histogramas);
+            long[] rechazadas = rechazadasPorCliente[c];
+            Thread hilo = new Thread(() -> {
+                ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+                try {
+                    while (System.nanoTime() < fin) {
+                        int elegido = elegir(pesosAcumulados, aleatorio.nextInt(sumaPesos));
+                        Operacion operacion = mezcla.get(elegido);
+                        long t0 = System.nanoTime();
+                        try {
+                            HttpResponse<String> respuesta = cliente.send(operacion.peticion().apply(aleatorio),
+                                    operacion.alResponder() != null
+                                            ? HttpResponse.BodyHandlers.ofString()
+                                            : HttpResponse.BodyHandlers.replacing(null));
+                            long micros = (System.nanoTime() - t0) / 1000;
+                            histogramas[elegido].recordValue(Math.min(micros, LATENCIA_MAXIMA_US));
+                            if (respuesta.statusCode() >= 500) {
+                                errores.incrementAndGet();
+                            } else if (respuesta.statusCode() >= 400) {
+                                rechazadas[elegido]++;
+                            } else if (operacion.alResponder() != null) {
+                                operacion.alResponder().accept(respuesta);
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        } catch (Exception e) {
+                            errores.incrementAndGet();
+                        }
+                    }
+                } finally {
+                    terminados.countDown();
+                }
+            });
+            hilo.setDaemon(true);
+            hilo.start();
+        }
+        terminados.await();
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        Map<String, Histogram> porOperacion = new LinkedHashMap<>();
+        Map<String, Long> rechazadasPorOperacion = new LinkedHashMap<>();
+        for (int i = 0; i < mezcla.size(); i++) {
+            Histogram histograma = new Histogram(LATENCIA_MAXIMA_US, DIGITOS_SIGNIFICATIVOS);
+            long rechazadas = 0;
+            for (int c = 0; c < clientes; c++) {
+                histograma.add(histogramasPorCliente.get(c)[i]);
+                rechazadas += rechazadasPorCliente[c][i];
+            }
+            porOperacion.put(mezcla.get(i).nombre(), histograma);
+            rechazadasPorOperacion.put(mezcla.get(i).nombre(), rechazadas);
+        }
+        return new Resultado(modo, porOperacion, rechazadasPorOperacion, errores.get(), segundos);
+    }
+
+    private static int elegir(int[] pesosAcumulados, int valor) {
+        for (int i = 0; i < pesosAcumulados.length; i++) {
+            if (valor < pesosAcumulados[i]) {
+                return i;
+            }
+        }
+        return pesosAcumulados.length - 1;
+    }
+
+    HttpRequest.Builder peticion(String ruta) {
+        return HttpRequest.newBuilder(URI.create(urlBase + ruta)).timeout(Duration.ofSeconds(30));
+    }
+
+    HttpRequest get(String ruta) {
+        return peticion(ruta).GET().build();
+    }
+
+    HttpRequest post(String ruta, String json) {
+        return peticion(ruta).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+
+    HttpRequest patch(String ruta, String json) {
+        return peticion(ruta).header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+
+    HttpRequest delete(String ruta) {
+        return peticion(ruta).DELETE().build();
+    }
+}
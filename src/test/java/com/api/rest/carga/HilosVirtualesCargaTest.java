@@ -0,0 +1,69 @@
+package com.api.rest.carga;
+
+import com.api.rest.PruebasUnitariasSpringBootApplication;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//compara hilos de plataforma contra hilos virtuales con latencia de base de datos simulada
+//./mvnw test -Pcarga,java21 -Dtest=HilosVirtualesCargaTest -Dcarga.clientes=400 -Dcarga.latencia-bd-ms=20
+@Tag("carga")
+@EnabledForJreRange(min = JRE.JAVA_21)
+public class HilosVirtualesCargaTest {
+
+    private static final int CLIENTES = Integer.getInteger("carga.clientes", 400);
+    private static final int EMPLEADOS = Integer.getInteger("carga.empleados", 10_000);
+    private static final long LATENCIA_BD_MS = Long.getLong("carga.latencia-bd-ms", 20);
+    private static final int HILOS_TOMCAT = Integer.getInteger("carga.hilos-tomcat", 50);
+    private static final int POOL = Integer.getInteger("carga.pool", 100);
+    private static final Duration CALENTAMIENTO = Duration.ofSeconds(Long.getLong("carga.calentamiento-s", 5));
+    private static final Duration DURACION = Duration.ofSeconds(Long.getLong("carga.duracion-s", 20));
+
+    @DisplayName("Throughput y p99 con hilos de plataforma y con hilos virtuales")
+    @Test
+    void testCompararHilosPlataformaYVirtuales() throws Exception {
+        GeneradorCarga.Resultado plataforma = medir(false);
+        GeneradorCarga.Resultado virtual = medir(true);
+
+        System.out.printf("clientes=%d latencia-bd=%d ms hilos-tomcat=%d pool=%d%n",
+                CLIENTES, LATENCIA_BD_MS, HILOS_TOMCAT, POOL);
+        System.out.println(plataforma);
+        System.out.println(virtual);
+
+        assertThat(plataforma.peticiones()).isGreaterThan(0);
+        assertThat(virtual.peticiones()).isGreaterThan(0);
+    }
+
+    private GeneradorCarga.Resultado medir(boolean hilosVirtuales) throws Exception {
+        String modo = hilosVirtuales ? "virtual" : "plataforma";
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(PruebasUnitariasSpringBootApplication.class)
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(new LatenciaBdSimulada(LATENCIA_BD_MS)))
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:carga-" + modo,
+                        "--spring.threads.virtual.enabled=" + hilosVirtuales,
+                        "--server.tomcat.threads.max=" + HILOS_TOMCAT,
+                        "--spring.datasource.hikari.maximum-pool-size=" + POOL,
+                        "--empleados.bd.permisos-concurrentes=" + POOL,
+                        "--empleados.bd.espera-permiso=30s",
+                        "--empleados.admision.tasa.habilitada=false")) {
+            int puerto = contexto.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            GeneradorCarga generador = new GeneradorCarga("http://localhost:" + puerto);
+            generador.sembrarEmpleados(EMPLEADOS);
+
+            //listado por cursor con un punto de partida aleatorio: cada peticion va a la base de datos
+            List<GeneradorCarga.Operacion> mezcla = List.of(new GeneradorCarga.Operacion("list", 1,
+                    aleatorio -> generador.get("/api/empleados?limit=20&after=" + aleatorio.nextInt(EMPLEADOS))));
+            generador.ejecutar(modo, CLIENTES, CALENTAMIENTO, mezcla);
+            return generador.ejecutar(modo, CLIENTES, DURACION, mezcla);
+        }
+    }
+}
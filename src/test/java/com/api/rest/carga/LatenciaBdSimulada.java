@@ -0,0 +1,69 @@
+package com.api.rest.carga;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+//agrega una espera fija a cada sentencia para simular una base de datos remota con H2 en memoria
+class LatenciaBdSimulada implements BeanPostProcessor {
+
+    private final long latenciaMs;
+
+    LatenciaBdSimulada(long latenciaMs) {
+        this.latenciaMs = latenciaMs;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String nombre) {
+        if (latenciaMs <= 0 || !(bean instanceof DataSource dataSource)) {
+            return bean;
+        }
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return conLatencia(super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String usuario, String clave) throws SQLException {
+                return conLatencia(super.getConnection(usuario, clave));
+            }
+        };
+    }
+
+    private Connection conLatencia(Connection conexion) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, metodo, args) -> {
+                    Object resultado = invocar(conexion, metodo, args);
+                    if ("prepareStatement".equals(metodo.getName())) {
+                        return conLatencia((PreparedStatement) resultado);
+                    }
+                    return resultado;
+                });
+    }
+
+    private PreparedStatement conLatencia(PreparedStatement sentencia) {
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, metodo, args) -> {
+                    if (metodo.getName().startsWith("execute")) {
+                        Thread.sleep(latenciaMs);
+                    }
+                    return invocar(sentencia, metodo, args);
+                });
+    }
+
+    private static Object invocar(Object destino, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(destino, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.api.rest.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class DataSourceConAdmisionTest {
+
+    private DataSource pool;
+    private Connection conexion;
+    private MeterRegistry meterRegistry;
+    private DataSourceConAdmision dataSource;
+
+    @BeforeEach
+    void setup() throws Exception {
+        pool = mock(DataSource.class);
+        conexion = mock(Connection.class);
+        given(pool.getConnection()).willReturn(conexion);
+        meterRegistry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", meterRegistry);
+        dataSource = new DataSourceConAdmision(pool, 1, 10, beanFactory.getBeanProvider(MeterRegistry.class));
+    }
+
+    @DisplayName("Test para rechazar una conexion cuando no quedan permisos")
+    @Test
+    void testRechazarSinPermisos() throws Exception {
+        //given
+        Connection ocupada = dataSource.getConnection();
+        //when - then
+        assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+        assertThat(meterRegistry.counter("empleados.admision", "clase", "bd", "resultado", "rechazada").count())
+                .isEqualTo(1);
+        ocupada.close();
+    }
+
+    @DisplayName("Test para devolver el permiso una sola vez al cerrar la conexion")
+    @Test
+    void testDevolverPermisoAlCerrar() throws Exception {
+        //given
+        Connection ocupada = dataSource.getConnection();
+        //when
+        ocupada.close();
+        ocupada.close();
+        //then
+        assertThat(dataSource.getPermisosDisponibles()).isEqualTo(1);
+        verify(conexion, times(1)).close();
+        assertThat(dataSource.getConnection()).isNotNull();
+    }
+
+    @DisplayName("Test para devolver el permiso si el pool falla")
+    @Test
+    void testDevolverPermisoSiFallaElPool() throws Exception {
+        //given
+        given(pool.getConnection()).willThrow(new SQLTransientConnectionException("pool agotado"));
+        //when - then
+        assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+        assertThat(dataSource.getPermisosDisponibles()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,25 @@
+package com.api.rest.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+//arranca el contexto completo con el planificador activo
+@SpringBootTest(properties = "empleados.total.reconciliacion=PT0.1S")
+public class ReconciliadorTotalTest {
+
+    @SpyBean
+    private ReconciliadorTotal reconciliadorTotal;
+
+    @DisplayName("Test para reconciliar el total periodicamente")
+    @Test
+    void testReconciliarPeriodicamente() {
+        //given - when - then
+        verify(reconciliadorTotal, timeout(5000).atLeast(3)).reconciliar();
+    }
+}
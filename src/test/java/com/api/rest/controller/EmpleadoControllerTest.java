@@ -1,21 +1,46 @@
 package com.api.rest.controller;
 
+import com.api.rest.cambios.RegistroCambios;
+import com.api.rest.dto.CambioEmpleado;
+import com.api.rest.dto.EstadisticasCache;
+import com.api.rest.dto.EstadoIngesta;
+import com.api.rest.dto.ResultadoLoteEmpleado;
+import com.api.rest.dto.ResumenImportacion;
+import com.api.rest.exception.CambiosCaducadosException;
+import com.api.rest.exception.CampoInvalidoException;
+import com.api.rest.exception.ColaLlenaException;
+import com.api.rest.exception.EmailDuplicadoException;
+import com.api.rest.exception.ResourceNotFoundException;
+import com.api.rest.exception.VersionConflictoException;
+import com.api.rest.ingesta.EscrituraDiferida;
 import com.api.rest.model.Empleado;
 import com.api.rest.service.EmpleadoService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.*;
@@ -32,6 +57,12 @@ public class EmpleadoControllerTest {
     @MockBean
     private EmpleadoService empleadoService;
 
+    @MockBean
+    private EscrituraDiferida escrituraDiferida;
+
+    @MockBean
+    private RegistroCambios registroCambios;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -59,6 +90,233 @@ public class EmpleadoControllerTest {
                 .andExpect(jsonPath("$.email", is(empleado.getEmail())));
     }
 
+    @DisplayName("Test para repetir un guardado con la misma Idempotency-Key")
+    @Test
+    void testGuardarEmpleadoIdempotente() throws Exception{
+        //given
+        Empleado empleado = Empleado.builder()
+                .nombre("Pepe")
+                .apellido("Lopez")
+                .email("p12@email.com")
+                .build();
+        given(empleadoService.saveEmpleado(any(Empleado.class))).willAnswer(invocation -> {
+            Empleado guardado = invocation.getArgument(0);
+            guardado.setId(2L);
+            return guardado;
+        });
+        String cuerpo = objectMapper.writeValueAsString(empleado);
+        mockMvc.perform(post("/api/empleados")
+                        .header("Idempotency-Key", "guardar-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cuerpo))
+                .andExpect(status().isCreated());
+        //when
+        ResultActions response = mockMvc.perform(post("/api/empleados")
+                .header("Idempotency-Key", "guardar-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(cuerpo));
+        //then
+        response.andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id", is(2)));
+        verify(empleadoService, times(1)).saveEmpleado(any(Empleado.class));
+    }
+
+    @DisplayName("Test para reutilizar una Idempotency-Key con otro cuerpo")
+    @Test
+    void testGuardarEmpleadoIdempotenteOtroCuerpo() throws Exception{
+        //given
+        given(empleadoService.saveEmpleado(any(Empleado.class))).willAnswer(invocation -> invocation.getArgument(0));
+        mockMvc.perform(post("/api/empleados")
+                        .header("Idempotency-Key", "guardar-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\":\"Pepe\",\"apellido\":\"Lopez\",\"email\":\"p12@email.com\"}"))
+                .andExpect(status().isCreated());
+        //when
+        ResultActions response = mockMvc.perform(post("/api/empleados")
+                .header("Idempotency-Key", "guardar-2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"nombre\":\"Ana\",\"apellido\":\"Ruiz\",\"email\":\"ana@email.com\"}"));
+        //then
+        response.andDo(print())
+                .andExpect(status().isUnprocessableEntity());
+        verify(empleadoService, times(1)).saveEmpleado(any(Empleado.class));
+    }
+
+    @DisplayName("Test para rechazar con 413 un cuerpo demasiado grande con Idempotency-Key")
+    @Test
+    void testGuardarEmpleadoIdempotenteCuerpoDemasiadoGrande() throws Exception{
+        //given
+        String cuerpo = "{\"nombre\":\"" + "a".repeat(70_000) + "\",\"apellido\":\"Lopez\",\"email\":\"p12@email.com\"}";
+        //when
+        ResultActions response = mockMvc.perform(post("/api/empleados")
+                .header("Idempotency-Key", "guardar-3")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(cuerpo));
+        //then
+        response.andDo(print())
+                .andExpect(status().isPayloadTooLarge());
+        verify(empleadoService, never()).saveEmpleado(any(Empleado.class));
+    }
+
+    @DisplayName("Test para importar empleados desde CSV")
+    @Test
+    void testImportarEmpleadosCsv() throws Exception{
+        //given
+        given(empleadoService.importarEmpleados(any(Reader.class), eq(';'))).willReturn(ResumenImportacion.builder()
+                .filas(3).aceptadas(2).duplicadas(1).incidencias(List.of("linea 4: Empleado con ese email ya existe:a@email.com"))
+                .build());
+        //when
+        ResultActions response = mockMvc.perform(post("/api/empleados/import")
+                .param("separador", ";")
+                .contentType("text/csv")
+                .content("nombre;apellido;email\nJuan;Oliva;j@email.com\nAna;Ruiz;a@email.com\nAna;Ruiz;a@email.com\n"));
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.aceptadas", is(2)))
+                .andExpect(jsonPath("$.duplicadas", is(1)));
+    }
+
+    @DisplayName("Test para importar empleados desde un fichero multipart")
+    @Test
+    void testImportarEmpleadosMultipart() throws Exception{
+        //given
+        given(empleadoService.importarEmpleados(any(Reader.class), eq(','))).willReturn(ResumenImportacion.builder()
+                .filas(1).aceptadas(1).build());
+        MockMultipartFile archivo = new MockMultipartFile("archivo", "empleados.csv", "text/csv",
+                "nombre,apellido,email\nJuan,Oliva,j@email.com\n".getBytes(StandardCharsets.UTF_8));
+        //when
+        ResultActions response = mockMvc.perform(multipart("/api/empleados/import").file(archivo));
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.aceptadas", is(1)));
+    }
+
+    @DisplayName("Test para no aplicar la Idempotency-Key a la importacion")
+    @Test
+    void testImportarEmpleadosIgnoraIdempotencyKey() throws Exception{
+        //given
+        given(empleadoService.importarEmpleados(any(Reader.class), eq(','))).willReturn(ResumenImportacion.builder()
+                .filas(1).aceptadas(1).build());
+        MockMultipartFile archivo = new MockMultipartFile("archivo", "empleados.csv", "text/csv",
+                "nombre,apellido,email\nJuan,Oliva,j@email.com\n".getBytes(StandardCharsets.UTF_8));
+        //when
+        mockMvc.perform(multipart("/api/empleados/import").file(archivo).header("Idempotency-Key", "importar-1"))
+                .andExpect(status().isOk());
+        ResultActions response = mockMvc.perform(multipart("/api/empleados/import").file(archivo)
+                .header("Idempotency-Key", "importar-1"));
+        //then
+        response.andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+        verify(empleadoService, times(2)).importarEmpleados(any(Reader.class), eq(','));
+    }
+
+    @DisplayName("Test para guardar empleado en modo asincrono")
+    @Test
+    void testGuardarEmpleadoAsincrono() throws Exception{
+        //given
+        Empleado empleado = Empleado.builder()
+                .nombre("Pepe")
+                .apellido("Lopez")
+                .email("p12@email.com")
+                .build();
+        given(escrituraDiferida.isHabilitada()).willReturn(true);
+        given(escrituraDiferida.encolar(any(Empleado.class))).willReturn(EstadoIngesta.pendiente("abc", "p12@email.com"));
+        //when
+        ResultActions response = mockMvc.perform(post("/api/empleados")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(empleado)));
+        //then
+        response.andDo(print())
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", containsString("/api/empleados/ingesta/abc")))
+                .andExpect(jsonPath("$.estado", is("PENDIENTE")));
+        verify(empleadoService, never()).saveEmpleado(any());
+    }
+
+    @DisplayName("Test para guardar empleado en modo asincrono con la cola llena")
+    @Test
+    void testGuardarEmpleadoAsincronoColaLlena() throws Exception{
+        //given
+        Empleado empleado = Empleado.builder()
+                .nombre("Pepe")
+                .apellido("Lopez")
+                .email("p12@email.com")
+                .build();
+        given(escrituraDiferida.isHabilitada()).willReturn(true);
+        given(escrituraDiferida.encolar(any(Empleado.class))).willThrow(new ColaLlenaException("Cola de ingesta llena"));
+        //when
+        ResultActions response = mockMvc.perform(post("/api/empleados")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(empleado)));
+        //then
+        response.andDo(print())
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @DisplayName("Test para consultar el estado de una ingesta")
+    @Test
+    void testObtenerEstadoIngesta() throws Exception{
+        //given
+        given(escrituraDiferida.obtenerEstado("abc")).willReturn(EstadoIngesta.builder()
+                .seguimiento("abc").email("p12@email.com").estado(EstadoIngesta.Estado.CREADO).id(7L).build());
+        //when
+        ResultActions response = mockMvc.perform(get("/api/empleados/ingesta/{seguimiento}", "abc"));
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.estado", is("CREADO")))
+                .andExpect(jsonPath("$.id", is(7)));
+    }
+
+    @DisplayName("Test para guardar empleado con email duplicado")
+    @Test
+    void testGuardarEmpleadoEmailDuplicado() throws Exception{
+        //given
+        Empleado empleado = Empleado.builder()
+                .nombre("Pepe")
+                .apellido("Lopez")
+                .email("p12@email.com")
+                .build();
+        given(empleadoService.saveEmpleado(any(Empleado.class)))
+                .willThrow(new EmailDuplicadoException("Empleado con ese email ya existe:p12@email.com"));
+        //when
+        ResultActions response = mockMvc.perform(post("/api/empleados")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(empleado)));
+        //then
+        response.andDo(print())
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.mensaje", is("Empleado con ese email ya existe:p12@email.com")));
+    }
+
+    @DisplayName("Test para guardar empleados en lote")
+    @Test
+    void testGuardarEmpleadosEnLote() throws Exception{
+        //given
+        Empleado empleado1 = Empleado.builder().id(7L).nombre("Pepe").apellido("Lopez").email("p12@email.com").build();
+        Empleado empleado2 = Empleado.builder().nombre("Julen").apellido("Oliva").email("j2@gmail.com").build();
+        given(empleadoService.saveEmpleados(anyList())).willReturn(List.of(
+                ResultadoLoteEmpleado.creado(0, empleado1),
+                ResultadoLoteEmpleado.conflicto(1, empleado2.getEmail())));
+        //when
+        ResultActions response = mockMvc.perform(post("/api/empleados/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(empleado1, empleado2))));
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].estado", is("CREADO")))
+                .andExpect(jsonPath("$[0].id", is(7)))
+                .andExpect(jsonPath("$[1].estado", is("CONFLICTO")))
+                .andExpect(jsonPath("$[1].email", is("j2@gmail.com")));
+    }
+
     @DisplayName("Test para listar empleado")
     @Test
     void testListarEmpleados() throws Exception{
@@ -78,6 +336,243 @@ public class EmpleadoControllerTest {
                 .andExpect(jsonPath("$.size()", is(listaEmpleados.size())));
     }
 
+    @DisplayName("Test para responder 503 con Retry-After si la base de datos esta saturada")
+    @Test
+    void testBaseDatosSaturada() throws Exception{
+        //given
+        given(empleadoService.getEmpleadoById(1L)).willThrow(
+                new CannotCreateTransactionException("Could not open JPA EntityManager for transaction"));
+        //when
+        ResultActions response = mockMvc.perform(get("/api/empleados/{id}", 1L));
+        //then
+        response.andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @DisplayName("Test para contar empleados")
+    @Test
+    void testContarEmpleados() throws Exception{
+        //given
+        given(empleadoService.getTotalEmpleados()).willReturn(42L);
+        //when
+        ResultActions response = mockMvc.perform(get("/api/empleados/count"));
+        //then
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(42)));
+    }
+
+    @DisplayName("Test para devolver el total en la cabecera X-Total-Count al listar")
+    @Test
+    void testListarEmpleadosConTotal() throws Exception{
+        //given
+        given(empleadoService.getEmpleadosPaginados(0L, 2)).willReturn(List.of(
+                Empleado.builder().id(1L).nombre("Christian").apellido("Ramirez").email("c1@gmail.com").build()));
+        given(empleadoService.getTotalEmpleados()).willReturn(7L);
+        //when
+        ResultActions response = mockMvc.perform(get("/api/empleados").param("limit", "2"));
+        //then
+        response.andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "7"));
+    }
+
+    @DisplayName("Test para listar los cambios posteriores a una secuencia")
+    @Test
+    void testListarCambios() throws Exception{
+        //given
+        given(registroCambios.desde(5L, 1000)).willReturn(List.of(
+                CambioEmpleado.builder().secuencia(6L).tipo(CambioEmpleado.Tipo.BAJA).id(2L).build()));
+        given(registroCambios.getUltimaSecuencia()).willReturn(6L);
+        //when
+        ResultActions response = mockMvc.perform(get("/api/empleados/changes").param("since", "5"));
+        //then
+        response.andExpect(status().isOk())
+                .andExpect(header().string("X-Ultima-Secuencia", "6"))
+                .andExpect(jsonPath("$[0].secuencia", is(6)))
+                .andExpect(jsonPath("$[0].tipo", is("BAJA")));
+    }
+
+    @DisplayName("Test para responder 410 si los cambios pedidos ya no estan retenidos")
+    @Test
+    void testListarCambiosCaducados() throws Exception{
+        //given
+        given(registroCambios.desde(anyLong(), anyInt())).willThrow(new CambiosCaducadosException("caducados"));
+        //when
+        ResultActions response = mockMvc.perform(get("/api/empleados/changes").param("since", "1"));
+        //then
+        response.andExpect(status().isGone());
+    }
+
+    @DisplayName("Test para reanudar el stream SSE de cambios desde Last-Event-ID")
+    @Test
+    void testSuscribirCambiosDesdeLastEventId() throws Exception{
+        //given
+        SseEmitter emisor = new SseEmitter();
+        given(registroCambios.suscribir(7L)).willReturn(emisor);
+        //when
+        MvcResult resultado = mockMvc.perform(get("/api/empleados/changes")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("Last-Event-ID", "7")
+                        .param("since", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        emisor.send(SseEmitter.event().id("8").data(
+                CambioEmpleado.builder().secuencia(8L).tipo(CambioEmpleado.Tipo.BAJA).id(2L).build()));
+        emisor.complete();
+        //then
+        verify(registroCambios).suscribir(7L);
+        assertThat(resultado.getResponse().getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+        assertThat(resultado.getResponse().getContentAsString()).contains("id:8").contains("\"secuencia\":8");
+    }
+
+    @DisplayName("Test para listar empleados en CBOR y Smile")
+    @Test
+    void testListarEmpleadosFormatosBinarios() throws Exception{
+        //given
+        List<Empleado> listaEmpleados = List.of(
+                Empleado.builder().id(1L).nombre("Christian").apellido("Ramirez").email("c1@gmail.com").build(),
+                Empleado.builder().id(2L).nombre("Gabriel").apellido("Ramirez").email("g1@gmail.com").build());
+        given(empleadoService.getAllEmpleados()).willReturn(listaEmpleados);
+        //when
+        MvcResult cbor = mockMvc.perform(get("/api/empleados").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/cbor"))
+                .andReturn();
+        MvcResult smile = mockMvc.perform(get("/api/empleados").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-jackson-smile"))
+                .andReturn();
+        //then
+        Empleado[] desdeCbor = new CBORMapper().readValue(cbor.getResponse().getContentAsByteArray(), Empleado[].class);
+        Empleado[] desdeSmile = new SmileMapper().readValue(smile.getResponse().getContentAsByteArray(), Empleado[].class);
+        assertThat(desdeCbor).extracting(Empleado::getNombre).containsExactly("Christian", "Gabriel");
+        assertThat(desdeSmile).extracting(Empleado::getNombre).containsExactly("Christian", "Gabriel");
+    }
+
+    @DisplayName("Test para obtener empleado por email")
+    @Test
+    void testObtenerEmpleadoPorEmail() throws Exception{
+        //given
+        given(empleadoService.getEmpleadoByEmail("p12@email.com")).willReturn(Optional.of(Empleado.builder()
+                .id(2L).nombre("Pepe").apellido("Lopez").email("p12@email.com").version(0L).build()));
+        //when
+        ResultActions response = mockMvc.perform(get("/api/empleados/by-email/{email}", "p12@email.com"));
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2-0\""))
+                .andExpect(jsonPath("$.id", is(2)));
+    }
+
+    @DisplayName("Test para obtener empleado por email inexistente")
+    @Test
+    void testObtenerEmpleadoPorEmailInexistente() throws Exception{
+        //given
+        given(empleadoService.getEmpleadoByEmail("nadie@email.com")).willReturn(Optional.empty());
+        //when
+        ResultActions response = mockMvc.perform(get("/api/empleados/by-email/{email}", "nadie@email.com"));
+        //then
+        response.andDo(print())
+                .andExpect(status().isNotFound());
+    }
+
+    @DisplayName("Test para buscar empleados")
+    @Test
+    void testBuscarEmpleados() throws Exception{
+        //given
+        given(empleadoService.buscarEmpleados("jua", 5)).willReturn(List.of(
+                Empleado.builder().id(1L).nombre("Juan").apellido("Oliva").email("jj22@email.com").build(),
+                Empleado.builder().id(2L).nombre("Juana").apellido("Ruiz").email("juana@email.com").build()));
+        //when
+        ResultActions response = mockMvc.perform(get("/api/empleados/search")
+                .param("q", "jua")
+                .param("limit", "5"));
+        //then
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].nombre", is("Juan")));
+    }
+
+    @DisplayName("Test para listar empleados paginados por cursor")
+    @Test
+    void testListarEmpleadosPaginados() throws Exception{
+        //given
+        List<Empleado> pagina = List.of(
+                Empleado.builder().id(11L).nombre("Christian").apellido("Ramirez").email("c1@gmail.com").build(),
+                Empleado.builder().id(12L).nombre("Gabriel").apellido("Ramirez").email("g1@gmail.com").build());
+        given(empleadoService.getEmpleadosPaginados(10L, 2)).willReturn(pagina);
+        //when
+        ResultActions response = mockMvc.perform(get("/api/empleados")
+                .param("after", "10")
+                .param("limit", "2"));
+        //then
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(header().string("Link", containsString("after=12")))
+                .andExpect(header().string("Link", containsString("rel=\"next\"")));
+    }
+
+    @DisplayName("Test para listar empleados con solo algunos campos")
+    @Test
+    void testListarEmpleadosConCampos() throws Exception{
+        //given
+        given(empleadoService.getCamposPaginados(List.of("id", "nombre"), 0L, 2)).willReturn(List.of(
+                Map.of("id", 1L, "nombre", "Christian"),
+                Map.of("id", 2L, "nombre", "Gabriel")));
+        //when
+        ResultActions response = mockMvc.perform(get("/api/empleados")
+                .param("fields", "id,nombre")
+                .param("limit", "2"));
+        //then
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$[0].nombre", is("Christian")))
+                .andExpect(jsonPath("$[0].email").doesNotExist())
+                .andExpect(header().string("Link", containsString("after=2")));
+    }
+
+    @DisplayName("Test para listar empleados con un campo no permitido")
+    @Test
+    void testListarEmpleadosConCampoNoPermitido() throws Exception{
+        //given
+        given(empleadoService.getCamposPaginados(eq(List.of("salario")), anyLong(), anyInt()))
+                .willThrow(new CampoInvalidoException("Campos no permitidos:[salario]"));
+        //when
+        ResultActions response = mockMvc.perform(get("/api/empleados")
+                .param("fields", "salario"));
+        //then
+        response.andExpect(status().isBadRequest())
+                .andDo(print())
+                .andExpect(jsonPath("$.mensaje", containsString("salario")));
+    }
+
+    @DisplayName("Test para exportar empleados en NDJSON")
+    @Test
+    void testExportarEmpleados() throws Exception{
+        //given
+        Empleado empleado1 = Empleado.builder().id(1L).nombre("Christian").apellido("Ramirez").email("c1@gmail.com").build();
+        Empleado empleado2 = Empleado.builder().id(2L).nombre("Gabriel").apellido("Ramirez").email("g1@gmail.com").build();
+        willAnswer(invocation -> {
+            Consumer<Empleado> consumidor = invocation.getArgument(0);
+            consumidor.accept(empleado1);
+            consumidor.accept(empleado2);
+            return null;
+        }).given(empleadoService).exportarEmpleados(any());
+        //when
+        MvcResult resultado = mockMvc.perform(get("/api/empleados/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        //then
+        mockMvc.perform(asyncDispatch(resultado))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(
+                        objectMapper.writeValueAsString(empleado1) + "\n"
+                                + objectMapper.writeValueAsString(empleado2) + "\n"));
+    }
+
     @DisplayName("Test para buscar empleado por id")
     @Test
     void testEmpleadoPorId() throws Exception{
@@ -97,6 +592,61 @@ public class EmpleadoControllerTest {
                 .andExpect(jsonPath("$.nombre", is("Pepe")));
     }
 
+    @DisplayName("Test para obtener estadisticas de la cache")
+    @Test
+    void testEstadisticasCache() throws Exception{
+        //given
+        given(empleadoService.getEstadisticasCache()).willReturn(EstadisticasCache.builder()
+                .aciertos(8).fallos(2).desalojos(1).tasaAciertos(0.8).entradas(5).build());
+        //when
+        ResultActions response = mockMvc.perform(get("/api/empleados/cache/estadisticas"));
+        //then
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.aciertos", is(8)))
+                .andExpect(jsonPath("$.fallos", is(2)))
+                .andExpect(jsonPath("$.desalojos", is(1)));
+    }
+
+    @DisplayName("Test empleado por id con ETag")
+    @Test
+    void testEmpleadoPorIdConETag() throws Exception{
+        //given
+        Empleado empleado = Empleado.builder()
+                .id(2L)
+                .nombre("Pepe")
+                .apellido("Lopez")
+                .email("p12@email.com")
+                .version(5L)
+                .build();
+        given(empleadoService.getEmpleadoById(empleado.getId())).willReturn(Optional.of(empleado));
+        //when
+        ResultActions response = mockMvc.perform(get("/api/empleados/{id}", empleado.getId()));
+        ResultActions responseCondicional = mockMvc.perform(get("/api/empleados/{id}", empleado.getId())
+                .header("If-None-Match", "\"2-5\""));
+        //then
+        response.andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2-5\""));
+        responseCondicional.andExpect(status().isNotModified())
+                .andDo(print())
+                .andExpect(content().string(""));
+    }
+
+    @DisplayName("Test listar empleados sin cambios responde 304")
+    @Test
+    void testListarEmpleadosSinCambios() throws Exception{
+        //given
+        given(empleadoService.getVersionColeccion()).willReturn("abc-7");
+        //when
+        ResultActions response = mockMvc.perform(get("/api/empleados")
+                .header("If-None-Match", "\"labc-7\""));
+        //then
+        response.andExpect(status().isNotModified())
+                .andDo(print())
+                .andExpect(header().string("ETag", "\"labc-7\""));
+        verify(empleadoService, never()).getAllEmpleados();
+    }
+
     @DisplayName("Test empleado no encontrado")
     @Test
     void testEmpleadoNoEncontrado() throws Exception{
@@ -131,7 +681,6 @@ public class EmpleadoControllerTest {
                 .apellido("Ramirez")
                 .email("j33@gmail.com")
                 .build();
-        given(empleadoService.getEmpleadoById(empleadoGuardado.getId())).willReturn(Optional.of(empleadoGuardado));
         given(empleadoService.updateEmpleado(any(Empleado.class)))
                 .willAnswer((invocation) -> invocation.getArgument(0));
         //when
@@ -162,9 +711,8 @@ public class EmpleadoControllerTest {
                 .apellido("Ramirez")
                 .email("j33@gmail.com")
                 .build();
-        given(empleadoService.getEmpleadoById(empleadoGuardado.getId())).willReturn(Optional.empty());
         given(empleadoService.updateEmpleado(any(Empleado.class)))
-                .willAnswer((invocation) -> invocation.getArgument(0));
+                .willThrow(new ResourceNotFoundException("Empleado no encontrado:" + empleadoGuardado.getId()));
         //when
         ResultActions response = mockMvc.perform(put("/api/empleados/{id}",empleadoGuardado.getId())
                 .contentType(MediaType.APPLICATION_JSON)
@@ -175,16 +723,104 @@ public class EmpleadoControllerTest {
 
     }
 
+    @DisplayName("Test actualizar empleado con version obsoleta")
+    @Test
+    void testActualizarEmpleadoVersionObsoleta() throws Exception {
+        //given
+        Empleado empleadoActualizado = Empleado.builder()
+                .nombre("Raul")
+                .apellido("Ramirez")
+                .email("j33@gmail.com")
+                .version(1L)
+                .build();
+        given(empleadoService.updateEmpleado(any(Empleado.class)))
+                .willThrow(new VersionConflictoException("El empleado 2 fue modificado por otra peticion, version enviada:1"));
+        //when
+        ResultActions response = mockMvc.perform(put("/api/empleados/{id}", 2L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(empleadoActualizado)));
+        //then
+        response.andExpect(status().isConflict())
+                .andDo(print());
+    }
+
+    @DisplayName("Test actualizar empleado sin todos los campos")
+    @Test
+    void testActualizarEmpleadoIncompleto() throws Exception {
+        //when
+        ResultActions response = mockMvc.perform(put("/api/empleados/{id}", 2L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"nombre\":\"Raul\"}"));
+        //then
+        response.andExpect(status().isBadRequest())
+                .andDo(print());
+        verify(empleadoService, never()).updateEmpleado(any(Empleado.class));
+    }
+
+    @DisplayName("Test actualizar parcialmente un empleado")
+    @Test
+    void testActualizarEmpleadoParcial() throws Exception {
+        //given
+        given(empleadoService.updateEmpleado(any(Empleado.class)))
+                .willAnswer((invocation) -> {
+                    Empleado cambios = invocation.getArgument(0);
+                    return Empleado.builder()
+                            .id(cambios.getId())
+                            .nombre(cambios.getNombre())
+                            .apellido("Lopez")
+                            .email("p12@email.com")
+                            .version(2L)
+                            .build();
+                });
+        //when
+        ResultActions response = mockMvc.perform(patch("/api/empleados/{id}", 2L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"nombre\":\"Raul\"}"));
+        //then
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.id", is(2)))
+                .andExpect(jsonPath("$.nombre", is("Raul")))
+                .andExpect(jsonPath("$.apellido", is("Lopez")))
+                .andExpect(jsonPath("$.version", is(2)));
+    }
+
     @DisplayName("Test eliminar empleado")
     @Test
     void testEliminarEmpleado() throws Exception {
         //given
         long empleadoId = 1;
-        willDoNothing().given(empleadoService).deleteEmpleado(empleadoId);
+        given(empleadoService.deleteEmpleado(empleadoId)).willReturn(true);
         //when
         ResultActions response = mockMvc.perform(delete("/api/empleados/{id}",empleadoId));
         //then
-        response.andExpect(status().isOk())
+        response.andExpect(status().isNoContent())
                 .andDo(print());
     }
+
+    @DisplayName("Test eliminar empleado no encontrado")
+    @Test
+    void testEliminarEmpleadoNoEncontrado() throws Exception {
+        //given
+        long empleadoId = 1;
+        given(empleadoService.deleteEmpleado(empleadoId)).willReturn(false);
+        //when
+        ResultActions response = mockMvc.perform(delete("/api/empleados/{id}",empleadoId));
+        //then
+        response.andExpect(status().isNotFound())
+                .andDo(print());
+    }
+
+    @DisplayName("Test eliminar varios empleados")
+    @Test
+    void testEliminarEmpleados() throws Exception {
+        //given
+        given(empleadoService.deleteEmpleados(List.of(1L, 2L, 3L))).willReturn(2);
+        //when
+        ResultActions response = mockMvc.perform(delete("/api/empleados").param("ids", "1,2,3"));
+        //then
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.eliminados", is(2)));
+    }
 }
@@ -103,7 +103,7 @@ public class EmpleadoControllerTestRestTemplateTest {
                 .exchange("http://localhost:8080/api/empleados/{id}",
                         HttpMethod.DELETE, null, Void.class, pathVariables);
 
-        assertEquals(HttpStatus.OK, exchange.getStatusCode());
+        assertEquals(HttpStatus.NO_CONTENT, exchange.getStatusCode());
         assertFalse(exchange.hasBody());
 
         respuesta = testRestTemplate.getForEntity("http://localhost:8080/api/empleados", Empleado[].class);
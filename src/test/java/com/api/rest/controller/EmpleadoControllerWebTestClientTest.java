@@ -120,7 +120,7 @@ public class EmpleadoControllerWebTestClientTest {
 
         webTestClient.delete().uri("http://localhost:8080/api/empleados/2")
                 .exchange()
-                .expectStatus().isOk();
+                .expectStatus().isNoContent();
 
         webTestClient.get().uri("http://localhost:8080/api/empleados").exchange()
                 .expectStatus().isOk()
@@ -0,0 +1,173 @@
+package com.api.rest.controller;
+
+import com.api.rest.model.EmpleadoReactivo;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@ActiveProfiles("reactivo")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.main.web-application-type=reactive")
+public class EmpleadoReactivoControllerWebTestClientTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private static Long empleadoId;
+
+    @DisplayName("Test guardar empleado")
+    @Test
+    @Order(1)
+    void testGuardarEmpleado() {
+        //given
+        EmpleadoReactivo empleado = EmpleadoReactivo.builder()
+                .nombre("Pepe")
+                .apellido("Lopez")
+                .email("p12@email.com")
+                .build();
+        //when
+        EmpleadoReactivo empleadoCreado = webTestClient.post().uri("/api/empleados")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(empleado)
+                .exchange()
+        //then
+                .expectStatus().isCreated()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody(EmpleadoReactivo.class)
+                .returnResult().getResponseBody();
+        Assertions.assertNotNull(empleadoCreado);
+        Assertions.assertNotNull(empleadoCreado.getId());
+        Assertions.assertEquals("Pepe", empleadoCreado.getNombre());
+        Assertions.assertEquals(0L, empleadoCreado.getVersion());
+        empleadoId = empleadoCreado.getId();
+    }
+
+    @DisplayName("Test guardar empleado con email duplicado")
+    @Test
+    @Order(2)
+    void testGuardarEmpleadoEmailDuplicado() {
+        EmpleadoReactivo empleado = EmpleadoReactivo.builder()
+                .nombre("Otro")
+                .apellido("Lopez")
+                .email("p12@email.com")
+                .build();
+        webTestClient.post().uri("/api/empleados")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(empleado)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @DisplayName("Test obtener empleado por id")
+    @Test
+    @Order(3)
+    void testEmpleadoPorId() {
+        webTestClient.get().uri("/api/empleados/{id}", empleadoId).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(empleadoId)
+                .jsonPath("$.nombre").isEqualTo("Pepe")
+                .jsonPath("$.apellido").isEqualTo("Lopez")
+                .jsonPath("$.email").isEqualTo("p12@email.com");
+    }
+
+    @DisplayName("Test listar empleados en streaming NDJSON")
+    @Test
+    @Order(4)
+    void testListarEmpleadosNdjson() {
+        webTestClient.get().uri("/api/empleados")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(EmpleadoReactivo.class)
+                .consumeWith(response -> {
+                    List<EmpleadoReactivo> empleados = response.getResponseBody();
+                    Assertions.assertNotNull(empleados);
+                    Assertions.assertEquals(1, empleados.size());
+                });
+    }
+
+    @DisplayName("Test actualizar empleado")
+    @Test
+    @Order(5)
+    void testActualizarEmpleado() {
+        EmpleadoReactivo empleadoActualizado = EmpleadoReactivo.builder()
+                .nombre("Pepe")
+                .apellido("Castillo")
+                .email("ckk2@gmail.com")
+                .version(0L)
+                .build();
+
+        webTestClient.put().uri("/api/empleados/{id}", empleadoId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(empleadoActualizado)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.apellido").isEqualTo("Castillo")
+                .jsonPath("$.version").isEqualTo(1);
+
+        //la misma version otra vez ya esta obsoleta
+        webTestClient.put().uri("/api/empleados/{id}", empleadoId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(empleadoActualizado)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @DisplayName("Test eliminar empleado")
+    @Test
+    @Order(6)
+    void testEliminarEmpleado() {
+        webTestClient.delete().uri("/api/empleados/{id}", empleadoId)
+                .exchange()
+                .expectStatus().isNoContent();
+
+        webTestClient.delete().uri("/api/empleados/{id}", empleadoId)
+                .exchange()
+                .expectStatus().isNotFound();
+
+        webTestClient.get().uri("/api/empleados").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$").value(hasSize(0));
+    }
+
+    @DisplayName("Test guardar empleados con ids consecutivos del mismo bloque de la secuencia")
+    @Test
+    @Order(7)
+    void testGuardarEmpleadosConIdsConsecutivos() {
+        //given
+        EmpleadoReactivo primero = EmpleadoReactivo.builder().nombre("Ana").apellido("Ruiz").email("ana@email.com").build();
+        EmpleadoReactivo segundo = EmpleadoReactivo.builder().nombre("Juan").apellido("Oliva").email("juan@email.com").build();
+        //when
+        EmpleadoReactivo primeroCreado = webTestClient.post().uri("/api/empleados")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(primero)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(EmpleadoReactivo.class)
+                .returnResult().getResponseBody();
+        EmpleadoReactivo segundoCreado = webTestClient.post().uri("/api/empleados")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(segundo)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(EmpleadoReactivo.class)
+                .returnResult().getResponseBody();
+        //then
+        Assertions.assertNotNull(primeroCreado);
+        Assertions.assertNotNull(segundoCreado);
+        Assertions.assertEquals(primeroCreado.getId() + 1, segundoCreado.getId());
+    }
+}
@@ -0,0 +1,70 @@
+package com.api.rest.ingesta;
+
+import com.api.rest.dto.EstadoIngesta;
+import com.api.rest.exception.ColaLlenaException;
+import com.api.rest.model.Empleado;
+import com.api.rest.service.EmpleadoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+public class EscrituraDiferidaTest {
+
+    private EmpleadoService empleadoService;
+    private EscrituraDiferida escrituraDiferida;
+
+    @BeforeEach
+    void setup() {
+        empleadoService = mock(EmpleadoService.class);
+        escrituraDiferida = new EscrituraDiferida(true, 10, 1, Duration.ofMillis(10), Duration.ofHours(1),
+                Duration.ofMillis(200));
+        ReflectionTestUtils.setField(escrituraDiferida, "empleadoService", empleadoService);
+    }
+
+    private Empleado empleado(String email) {
+        return Empleado.builder().nombre("Pepe").apellido("Lopez").email(email).build();
+    }
+
+    @DisplayName("Test para detener la escritura diferida con un guardado bloqueado sin dejar pendientes")
+    @Test
+    void testDetenerConGuardadoBloqueado() {
+        //given
+        CountDownLatch bloqueo = new CountDownLatch(1);
+        given(empleadoService.saveEmpleados(anyList())).willAnswer(invocation -> {
+            try {
+                bloqueo.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException("guardado interrumpido", e);
+            }
+            return null;
+        });
+        escrituraDiferida.start();
+        escrituraDiferida.encolar(empleado("p12@email.com"));
+        verify(empleadoService, timeout(1000)).saveEmpleados(anyList());
+        EstadoIngesta enCola = escrituraDiferida.encolar(empleado("p13@email.com"));
+        //when
+        long inicio = System.nanoTime();
+        escrituraDiferida.stop();
+        long duracionMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        //then
+        assertThat(duracionMs).isLessThan(2000);
+        assertThat(escrituraDiferida.isRunning()).isFalse();
+        assertThat(escrituraDiferida.obtenerEstado(enCola.getSeguimiento()).getEstado())
+                .isEqualTo(EstadoIngesta.Estado.ERROR);
+        assertThrows(ColaLlenaException.class, () -> escrituraDiferida.encolar(empleado("p14@email.com")));
+        bloqueo.countDown();
+    }
+}
@@ -5,16 +5,25 @@ package com.api.rest.repository;
 //import static org.hamcrest.Matchers.*;
 
 import com.api.rest.model.Empleado;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DataJpaTest//prueba entidades y repos
 public class EmpleadoRepositoryTest {
@@ -22,6 +31,9 @@ public class EmpleadoRepositoryTest {
     @Autowired
     private EmpleadoRepository empleadoRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private Empleado empleado;
 
     @BeforeEach
@@ -52,6 +64,21 @@ public class EmpleadoRepositoryTest {
 
     }
 
+    @DisplayName("Test para guardar empleado con email duplicado")
+    @Test
+    void testGuardarEmpleadoEmailDuplicado(){
+        //given
+        empleadoRepository.saveAndFlush(empleado);
+        Empleado duplicado = Empleado.builder()
+                .nombre("Otro")
+                .apellido("Lopez")
+                .email(empleado.getEmail())
+                .build();
+        //when - then
+        assertThatThrownBy(() -> empleadoRepository.saveAndFlush(duplicado))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
     @DisplayName("Test para listar empleados")
     @Test
     void testListarEmpleados(){
@@ -72,6 +99,123 @@ public class EmpleadoRepositoryTest {
 
     }
 
+    @DisplayName("Test para listar empleados por cursor")
+    @Test
+    void testListarEmpleadosPorCursor(){
+        //given
+        Empleado empleado1 = Empleado.builder()
+                .nombre("Julen")
+                .apellido("Oliva")
+                .email("j2@gmail.com")
+                .build();
+        Empleado empleado2 = Empleado.builder()
+                .nombre("Adrian")
+                .apellido("Ramirez")
+                .email("a@gmail.com")
+                .build();
+        empleadoRepository.save(empleado);
+        empleadoRepository.save(empleado1);
+        empleadoRepository.save(empleado2);
+        //when
+        List<Empleado> pagina = empleadoRepository.findByIdGreaterThanOrderByIdAsc(empleado.getId(), Limit.of(1));
+        //then
+        assertThat(pagina.size()).isEqualTo(1);
+        assertThat(pagina.get(0).getId()).isEqualTo(empleado1.getId());
+    }
+
+    @DisplayName("Test para listar solo algunos campos por cursor")
+    @Test
+    void testListarCamposPorCursor(){
+        //given
+        Empleado empleado1 = Empleado.builder()
+                .nombre("Julen")
+                .apellido("Oliva")
+                .email("j2@gmail.com")
+                .build();
+        empleadoRepository.save(empleado);
+        empleadoRepository.save(empleado1);
+        //when
+        List<Map<String, Object>> pagina = empleadoRepository.findCamposPaginados(List.of("nombre"), empleado.getId(), 10);
+        //then
+        assertThat(pagina).hasSize(1);
+        assertThat(pagina.get(0)).containsOnlyKeys("nombre", "id");
+        assertThat(pagina.get(0)).containsEntry("nombre", "Julen").containsEntry("id", empleado1.getId());
+    }
+
+    //sin transaccion de prueba: la region L2 solo recibe la entidad cuando se confirma el alta
+    @DisplayName("Test para leer empleado desde la cache de segundo nivel")
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testObtenerEmpleadoDesdeCacheSegundoNivel(){
+        //given
+        empleadoRepository.save(empleado);
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        try {
+            estadisticas.clear();
+            //when
+            Optional<Empleado> empleadoCacheado = empleadoRepository.findById(empleado.getId());
+            //then
+            assertThat(empleadoCacheado).isPresent();
+            assertThat(estadisticas.getSecondLevelCacheHitCount()).isEqualTo(1);
+            assertThat(estadisticas.getPrepareStatementCount()).isZero();
+        } finally {
+            empleadoRepository.deleteAll();
+        }
+    }
+
+    //sin transaccion de prueba: actualizar un empleado no debe vaciar la region L2 de los demas
+    @DisplayName("Test para conservar en la cache de segundo nivel a los empleados no actualizados")
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testActualizarEmpleadoConservaCacheDeOtros(){
+        //given
+        Empleado empleado1 = Empleado.builder()
+                .nombre("Julen")
+                .apellido("Oliva")
+                .email("j2@gmail.com")
+                .build();
+        empleadoRepository.save(empleado);
+        empleadoRepository.save(empleado1);
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        try {
+            empleadoRepository.actualizar(empleado.getId(), "raul", null, null);
+            estadisticas.clear();
+            //when
+            Optional<Empleado> otro = empleadoRepository.findById(empleado1.getId());
+            //then
+            assertThat(otro).isPresent();
+            assertThat(estadisticas.getSecondLevelCacheHitCount()).isEqualTo(1);
+            assertThat(estadisticas.getPrepareStatementCount()).isZero();
+        } finally {
+            empleadoRepository.deleteAll();
+        }
+    }
+
+    //sin transaccion de prueba: la cache de consultas no devuelve resultados de una tabla con cambios sin confirmar
+    @DisplayName("Test para invalidar la cache de consultas de findByEmail al actualizar")
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testConsultaPorEmailSeInvalidaAlActualizar(){
+        //given
+        empleadoRepository.save(empleado);
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        try {
+            estadisticas.clear();
+            empleadoRepository.findByEmail("p12@email.com");
+            empleadoRepository.findByEmail("p12@email.com");
+            assertThat(estadisticas.getQueryCacheHitCount()).isEqualTo(1);
+            //when
+            empleadoRepository.actualizar(empleado.getId(), null, null, "p13@email.com");
+            Optional<Empleado> porEmailAnterior = empleadoRepository.findByEmail("p12@email.com");
+            //then
+            assertThat(porEmailAnterior).isEmpty();
+            assertThat(empleadoRepository.findByEmail("p13@email.com")).isPresent();
+            assertThat(estadisticas.getQueryCacheHitCount()).isEqualTo(1);
+        } finally {
+            empleadoRepository.deleteAll();
+        }
+    }
+
     @DisplayName("Test para obtener empleado por id")
     @Test
     void testObtenerEmpleadoPorId(){
@@ -101,6 +245,24 @@ public class EmpleadoRepositoryTest {
         assertThat(empleadoActualizado.getApellido()).isEqualTo("yanguas");
     }
 
+    @DisplayName("Test para actualizar empleado con version")
+    @Test
+    void testActualizarEmpleadoConVersion(){
+        //given
+        empleadoRepository.saveAndFlush(empleado);
+        long version = empleado.getVersion();
+        //when
+        int filas = empleadoRepository.actualizarConVersion(empleado.getId(), "raul", null, null, version);
+        int filasObsoletas = empleadoRepository.actualizarConVersion(empleado.getId(), "otro", null, null, version);
+        //then
+        Empleado empleadoActualizado = empleadoRepository.findById(empleado.getId()).get();
+        assertThat(filas).isEqualTo(1);
+        assertThat(filasObsoletas).isEqualTo(0);
+        assertThat(empleadoActualizado.getNombre()).isEqualTo("raul");
+        assertThat(empleadoActualizado.getApellido()).isEqualTo("Lopez");
+        assertThat(empleadoActualizado.getVersion()).isEqualTo(version + 1);
+    }
+
     @DisplayName("Test para eliminar empleado")
     @Test
     void testEliminarEmpleado(){
@@ -113,4 +275,22 @@ public class EmpleadoRepositoryTest {
         assertThat(empleadoOptional).isEmpty();
     }
 
+    @DisplayName("Test para eliminar varios empleados por ids")
+    @Test
+    void testEliminarEmpleadosPorIds(){
+        //given
+        Empleado empleado1 = Empleado.builder()
+                .nombre("Julen")
+                .apellido("Oliva")
+                .email("j2@gmail.com")
+                .build();
+        empleadoRepository.save(empleado);
+        empleadoRepository.save(empleado1);
+        //when
+        List<Long> eliminados = empleadoRepository.eliminarPorIds(List.of(empleado.getId(), empleado1.getId(), -1L));
+        //then
+        assertThat(eliminados).containsExactlyInAnyOrder(empleado.getId(), empleado1.getId());
+        assertThat(empleadoRepository.count()).isEqualTo(0);
+    }
+
 }
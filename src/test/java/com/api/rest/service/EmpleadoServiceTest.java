@@ -1,27 +1,56 @@
 package com.api.rest.service;
 
+import com.api.rest.cache.EmpleadoCache;
+import com.api.rest.cambios.RegistroCambios;
+import com.api.rest.dto.CambioEmpleado;
+import com.api.rest.dto.ResultadoLoteEmpleado;
+import com.api.rest.dto.ResumenImportacion;
+import com.api.rest.exception.CambiosCaducadosException;
+import com.api.rest.exception.CampoInvalidoException;
+import com.api.rest.exception.EmailDuplicadoException;
 import com.api.rest.exception.ResourceNotFoundException;
+import com.api.rest.exception.VersionConflictoException;
+import com.api.rest.indice.IndiceEmail;
+import com.api.rest.indice.IndiceTrigramas;
 import com.api.rest.model.Empleado;
 import com.api.rest.repository.EmpleadoRepository;
 import com.api.rest.service.impl.EmpleadoServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.swing.text.html.Option;
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.BDDMockito.given;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.Mockito.*;
 
 //import static org.awaitility.Awaitility.given;
@@ -33,13 +62,38 @@ public class EmpleadoServiceTest {
     @Mock
     private EmpleadoRepository empleadoRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private EmpleadoCache empleadoCache = new EmpleadoCache(100, Duration.ofMinutes(5), Duration.ofSeconds(10));
+
+    @Spy
+    private IndiceTrigramas indiceTrigramas = new IndiceTrigramas();
+
+    @Spy
+    private IndiceEmail indiceEmail = new IndiceEmail();
+
+    @Spy
+    private RegistroCambios registroCambios = new RegistroCambios(2, Duration.ofMinutes(1), 1, Duration.ofSeconds(10));
+
     @InjectMocks
     private EmpleadoServiceImpl empleadoService;
 
     private Empleado empleado;
 
+    private MeterRegistry meterRegistry;
+
     @BeforeEach
     void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(empleadoService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(empleadoService, "tamanoMaximoPagina", 1000);
+        ReflectionTestUtils.setField(empleadoService, "tamanoChunk", 2);
+        ReflectionTestUtils.setField(empleadoService, "maximoResultadosBusqueda", 50);
         empleado = Empleado.builder()
                 .id(2L)
                 .nombre("Pepe")
@@ -48,31 +102,215 @@ public class EmpleadoServiceTest {
                 .build();
     }
 
+    private void ejecutarTransaccionesDirectamente() {
+        given(transactionTemplate.execute(any())).willAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+    }
+
     @DisplayName("Test para guardar empleado")
     @Test
     void testGuardarEmpleado() {
         //gvn
-        given(empleadoRepository.findByEmail(empleado.getEmail()))
-                .willReturn(Optional.empty());
-        given(empleadoRepository.save(empleado)).willReturn(empleado);
+        given(empleadoRepository.saveAndFlush(empleado)).willAnswer(invocation -> {
+            Empleado nuevo = invocation.getArgument(0);
+            nuevo.setId(2L);
+            return nuevo;
+        });
         //when
         Empleado empleadoGuardado = empleadoService.saveEmpleado(empleado);
         //then
         assertThat(empleadoGuardado).isNotNull();
+        verify(empleadoRepository, never()).findByEmail(any());
     }
 
     @DisplayName("Test para guardar empleado con throw exception")
     @Test
     void testGuardarEmpleadoConThrowException() {
         //gvn
-        given(empleadoRepository.findByEmail(empleado.getEmail()))
-                .willReturn(Optional.of(empleado));
+        given(empleadoRepository.saveAndFlush(empleado)).willThrow(new DataIntegrityViolationException("duplicado",
+                new ConstraintViolationException("duplicado", null, "PUBLIC.UK_EMPLEADOS_EMAIL_INDEX_2")));
+        //when
+        assertThrows(EmailDuplicadoException.class,() -> {
+            empleadoService.saveEmpleado(empleado);
+        });
+        //then
+        verify(empleadoRepository,never()).findByEmail(any());
+    }
+
+    @DisplayName("Test para rechazar un email duplicado del indice confirmado en la base de datos")
+    @Test
+    void testGuardarEmpleadoDuplicadoEnIndice() {
+        //given
+        Empleado existente = Empleado.builder().id(7L).email("p12@email.com").build();
+        indiceEmail.registrar(existente);
+        given(empleadoRepository.findByEmail("p12@email.com")).willReturn(Optional.of(existente));
+        //when - then
+        assertThrows(EmailDuplicadoException.class, () -> empleadoService.saveEmpleado(empleado));
+        verify(empleadoRepository, never()).saveAndFlush(any());
+    }
+
+    @DisplayName("Test para guardar un email que el indice tiene desfasado")
+    @Test
+    void testGuardarEmpleadoConEntradaDesfasadaEnIndice() {
+        //given
+        indiceEmail.registrar(Empleado.builder().id(7L).email("p12@email.com").build());
+        given(empleadoRepository.findByEmail("p12@email.com")).willReturn(Optional.empty());
+        given(empleadoRepository.saveAndFlush(empleado)).willAnswer(invocation -> {
+            Empleado nuevo = invocation.getArgument(0);
+            nuevo.setId(2L);
+            return nuevo;
+        });
         //when
-        assertThrows(ResourceNotFoundException.class,() -> {
+        Empleado empleadoGuardado = empleadoService.saveEmpleado(empleado);
+        //then
+        assertThat(empleadoGuardado.getId()).isEqualTo(2L);
+        assertThat(indiceEmail.buscar("p12@email.com")).isEqualTo(2L);
+    }
+
+    @DisplayName("Test para no volver atras el indice de email con una version anterior o una fila borrada")
+    @Test
+    void testIndiceEmailIgnoraVersionesAnteriores() {
+        //given
+        indiceEmail.registrar(Empleado.builder().id(2L).email("nuevo@email.com").version(2L).build());
+        indiceEmail.eliminar(3L);
+        //when
+        indiceEmail.registrar(Empleado.builder().id(2L).email("p12@email.com").version(1L).build());
+        indiceEmail.registrar(Empleado.builder().id(3L).email("borrado@email.com").version(0L).build());
+        indiceEmail.marcarConstruido();
+        //then
+        assertThat(indiceEmail.buscar("nuevo@email.com")).isEqualTo(2L);
+        assertThat(indiceEmail.buscar("p12@email.com")).isNull();
+        assertThat(indiceEmail.buscar("borrado@email.com")).isNull();
+    }
+
+    @DisplayName("Test para no volver a indexar en la busqueda un empleado eliminado durante la carga inicial")
+    @Test
+    void testBusquedaIgnoraEmpleadoEliminadoDuranteCarga() {
+        //given
+        Empleado cargado = Empleado.builder().id(3L).nombre("Pepe").apellido("Lopez").email("p13@email.com")
+                .version(0L).build();
+        given(empleadoRepository.eliminarPorId(3L)).willReturn(1);
+        empleadoService.deleteEmpleado(3L);
+        //when
+        indiceTrigramas.indexar(cargado);
+        indiceTrigramas.marcarConstruido();
+        //then
+        assertThat(empleadoService.buscarEmpleados("pepe", 10)).isEmpty();
+        assertThat(indiceTrigramas.tamano()).isZero();
+    }
+
+    @DisplayName("Test para guardar empleado con otra violacion de integridad")
+    @Test
+    void testGuardarEmpleadoConOtraViolacion() {
+        //gvn
+        given(empleadoRepository.saveAndFlush(empleado)).willThrow(new DataIntegrityViolationException("nulo",
+                new ConstraintViolationException("nulo", null, null)));
+        //when - then
+        assertThrows(DataIntegrityViolationException.class,() -> {
             empleadoService.saveEmpleado(empleado);
         });
+    }
+
+    @DisplayName("Test para guardar empleados en lote")
+    @Test
+    void testGuardarEmpleadosEnLote() {
+        //given
+        Empleado nuevo1 = Empleado.builder().nombre("Juan").apellido("Oliva").email("jj22@email.com").build();
+        Empleado repetido = Empleado.builder().nombre("Juan").apellido("Oliva").email("jj22@email.com").build();
+        Empleado nuevo2 = Empleado.builder().nombre("Ana").apellido("Ruiz").email("ana@email.com").build();
+        Empleado existente = Empleado.builder().nombre("Pepe").apellido("Lopez").email("p12@email.com").build();
+        Empleado invalido = Empleado.builder().nombre("Sin").apellido("Email").build();
+        ejecutarTransaccionesDirectamente();
+        AtomicLong secuencia = new AtomicLong();
+        given(empleadoRepository.saveAll(anyList())).willAnswer(invocation -> {
+            List<Empleado> nuevos = invocation.getArgument(0);
+            nuevos.forEach(nuevo -> nuevo.setId(secuencia.incrementAndGet()));
+            return nuevos;
+        });
+        given(empleadoRepository.findEmailsExistentes(any())).willReturn(List.of());
+        given(empleadoRepository.findEmailsExistentes(Set.of("ana@email.com", "p12@email.com")))
+                .willReturn(List.of("p12@email.com"));
+        //when
+        List<ResultadoLoteEmpleado> resultados = empleadoService.saveEmpleados(
+                List.of(nuevo1, repetido, nuevo2, existente, invalido));
+        //then
+        assertThat(resultados).extracting(ResultadoLoteEmpleado::getEstado).containsExactly(
+                ResultadoLoteEmpleado.Estado.CREADO,
+                ResultadoLoteEmpleado.Estado.CONFLICTO,
+                ResultadoLoteEmpleado.Estado.CREADO,
+                ResultadoLoteEmpleado.Estado.CONFLICTO,
+                ResultadoLoteEmpleado.Estado.INVALIDO);
+        assertThat(resultados).extracting(ResultadoLoteEmpleado::getIndice).containsExactly(0, 1, 2, 3, 4);
+        assertThat(resultados).extracting(ResultadoLoteEmpleado::getId).containsExactly(1L, null, 2L, null, null);
+        //tres chunks de dos filas: una consulta IN por chunk con emails
+        verify(empleadoRepository, times(2)).findEmailsExistentes(any());
+        verify(empleadoRepository, never()).findByEmail(any());
+        verify(empleadoRepository, times(3)).flush();
+    }
+
+    @DisplayName("Test para importar empleados desde CSV por chunks")
+    @Test
+    void testImportarEmpleadosCsv() {
+        //given
+        ejecutarTransaccionesDirectamente();
+        AtomicLong secuencia = new AtomicLong();
+        given(empleadoRepository.saveAll(anyList())).willAnswer(invocation -> {
+            List<Empleado> nuevos = invocation.getArgument(0);
+            nuevos.forEach(nuevo -> nuevo.setId(secuencia.incrementAndGet()));
+            return nuevos;
+        });
+        given(empleadoRepository.findEmailsExistentes(any())).willReturn(List.of("p12@email.com"));
+        String csv = "Email,Nombre,Apellido\n"
+                + "jj22@email.com,Juan,Oliva\n"
+                + "p12@email.com,Pepe,Lopez\n"
+                + "\n"
+                + ",\"Sin, email\",Ruiz\n"
+                + "ana@email.com,Ana,\"Ruiz \"\"Ana\"\"\"\n";
+        //when
+        ResumenImportacion resumen = empleadoService.importarEmpleados(new StringReader(csv), ',');
+        //then
+        assertThat(resumen.getFilas()).isEqualTo(4);
+        assertThat(resumen.getAceptadas()).isEqualTo(2);
+        assertThat(resumen.getDuplicadas()).isEqualTo(1);
+        assertThat(resumen.getInvalidas()).isEqualTo(1);
+        assertThat(resumen.getIncidencias()).containsExactly(
+                "linea 3: Empleado con ese email ya existe:p12@email.com",
+                "linea 5: nombre, apellido y email son obligatorios");
+        //dos chunks de dos filas: un SELECT ... IN y un flush por chunk
+        verify(empleadoRepository, times(2)).flush();
+        assertThat(empleadoService.buscarEmpleados("ana", 10)).extracting(Empleado::getApellido).containsExactly("Ruiz \"Ana\"");
+    }
+
+    @DisplayName("Test para importar un CSV sin las columnas obligatorias")
+    @Test
+    void testImportarEmpleadosCsvSinCabecera() {
+        //when - then
+        assertThrows(CampoInvalidoException.class,
+                () -> empleadoService.importarEmpleados(new StringReader("nombre,apellido\nJuan,Oliva\n"), ','));
+        verify(empleadoRepository, never()).saveAll(anyList());
+    }
+
+    @DisplayName("Test para importar un CSV con BOM y saltos de linea dentro de un campo")
+    @Test
+    void testImportarEmpleadosCsvConBomYSaltosDeLinea() {
+        //given
+        ejecutarTransaccionesDirectamente();
+        AtomicLong secuencia = new AtomicLong();
+        given(empleadoRepository.saveAll(anyList())).willAnswer(invocation -> {
+            List<Empleado> nuevos = invocation.getArgument(0);
+            nuevos.forEach(nuevo -> nuevo.setId(secuencia.incrementAndGet()));
+            return nuevos;
+        });
+        String csv = "\uFEFFnombre;apellido;email\r\n"
+                + "Juan;\"Oliva\r\nDos lineas\";jj22@email.com\r\n"
+                + "Pepe;Lopez;\r\n";
+        //when
+        ResumenImportacion resumen = empleadoService.importarEmpleados(new StringReader(csv), ';');
         //then
-        verify(empleadoRepository,never()).save(any(Empleado.class));
+        assertThat(resumen.getAceptadas()).isEqualTo(1);
+        assertThat(resumen.getIncidencias()).containsExactly("linea 4: nombre, apellido y email son obligatorios");
     }
 
     @DisplayName("Test para listar empleados")
@@ -85,7 +323,7 @@ public class EmpleadoServiceTest {
                 .apellido("Oliva")
                 .email("jj22@email.com")
                 .build();
-        given(empleadoRepository.findAll()).willReturn(List.of(empleado,empleado1));
+        given(empleadoRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(1000))).willReturn(List.of(empleado,empleado1));
         //when
         List<Empleado> empleados = empleadoService.getAllEmpleados();
         //then
@@ -97,7 +335,7 @@ public class EmpleadoServiceTest {
     @Test
     void testListarColeccionEmpleadosVacia() {
         //gv
-        given(empleadoRepository.findAll()).willReturn(Collections.emptyList());
+        given(empleadoRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(1000))).willReturn(Collections.emptyList());
         //whn
         List<Empleado> listaEmpleados = empleadoService.getAllEmpleados();
         //th
@@ -105,6 +343,46 @@ public class EmpleadoServiceTest {
         assertThat(listaEmpleados.size()).isEqualTo(0);
     }
 
+    @DisplayName("Test para listar empleados paginados limita al tamaño maximo")
+    @Test
+    void testListarEmpleadosPaginadosLimitaTamano() {
+        //given
+        given(empleadoRepository.findByIdGreaterThanOrderByIdAsc(5L, Limit.of(1000))).willReturn(List.of(empleado));
+        //when
+        List<Empleado> empleados = empleadoService.getEmpleadosPaginados(5L, 50000);
+        //then
+        assertThat(empleados.size()).isEqualTo(1);
+        verify(empleadoRepository, never()).findAll();
+    }
+
+    @DisplayName("Test para listar campos no permitidos")
+    @Test
+    void testListarCamposNoPermitidos() {
+        //when - then
+        assertThrows(CampoInvalidoException.class, () -> empleadoService.getCamposPaginados(List.of("nombre", "salario"), 0, 10));
+        verify(empleadoRepository, never()).findCamposPaginados(any(), anyLong(), anyInt());
+    }
+
+    @DisplayName("Test para exportar empleados desacoplando cada entidad")
+    @Test
+    void testExportarEmpleados() {
+        //given
+        Empleado empleado1 = Empleado.builder()
+                .id(1L)
+                .nombre("Juan")
+                .apellido("Oliva")
+                .email("jj22@email.com")
+                .build();
+        given(empleadoRepository.streamTodos()).willReturn(Stream.of(empleado1, empleado));
+        List<Empleado> exportados = new ArrayList<>();
+        //when
+        empleadoService.exportarEmpleados(exportados::add);
+        //then
+        assertThat(exportados).containsExactly(empleado1, empleado);
+        verify(entityManager).detach(empleado1);
+        verify(entityManager).detach(empleado);
+    }
+
     @DisplayName("Test para obtener empleado por id")
     @Test
     void testObtenerEmpleadoPorId() {
@@ -116,16 +394,193 @@ public class EmpleadoServiceTest {
         assertThat(empleadoEncontrado).isNotNull();
     }
 
+    @DisplayName("Test para obtener empleado por id desde la cache")
+    @Test
+    void testObtenerEmpleadoPorIdDesdeCache() {
+        //given
+        given(empleadoRepository.findById(2L)).willReturn(Optional.of(empleado));
+        //when
+        empleadoService.getEmpleadoById(2L);
+        Empleado empleadoEncontrado = empleadoService.getEmpleadoById(2L).get();
+        //then
+        assertThat(empleadoEncontrado.getEmail()).isEqualTo("p12@email.com");
+        verify(empleadoRepository, times(1)).findById(2L);
+        assertThat(empleadoService.getEstadisticasCache().getAciertos()).isEqualTo(1);
+        assertThat(empleadoService.getEstadisticasCache().getFallos()).isEqualTo(1);
+    }
+
+    @DisplayName("Test para cachear empleado inexistente")
+    @Test
+    void testCacheNegativaEmpleadoInexistente() {
+        //given
+        given(empleadoRepository.findById(99L)).willReturn(Optional.empty());
+        //when
+        empleadoService.getEmpleadoById(99L);
+        Optional<Empleado> empleadoEncontrado = empleadoService.getEmpleadoById(99L);
+        //then
+        assertThat(empleadoEncontrado).isEmpty();
+        verify(empleadoRepository, times(1)).findById(99L);
+    }
+
+    @DisplayName("Test para medir la busqueda por id etiquetada por resultado")
+    @Test
+    void testMetricasObtenerEmpleadoPorId() {
+        //given
+        given(empleadoRepository.findById(2L)).willReturn(Optional.of(empleado));
+        given(empleadoRepository.findById(99L)).willReturn(Optional.empty());
+        //when
+        empleadoService.getEmpleadoById(2L);
+        empleadoService.getEmpleadoById(99L);
+        empleadoService.getEmpleadoById(99L);
+        //then
+        assertThat(meterRegistry.get("empleados.servicio").tags("operacion", "obtener", "resultado", "found").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("empleados.servicio").tags("operacion", "obtener", "resultado", "not-found").timer().count())
+                .isEqualTo(2);
+    }
+
+    @DisplayName("Test para buscar empleados por prefijo y con erratas")
+    @Test
+    void testBuscarEmpleados() {
+        //given
+        AtomicLong secuencia = new AtomicLong();
+        given(empleadoRepository.saveAndFlush(any(Empleado.class))).willAnswer(invocation -> {
+            Empleado nuevo = invocation.getArgument(0);
+            nuevo.setId(secuencia.incrementAndGet());
+            return nuevo;
+        });
+        empleadoService.saveEmpleado(Empleado.builder().nombre("Juan").apellido("Oliva").email("jj22@email.com").build());
+        empleadoService.saveEmpleado(Empleado.builder().nombre("Juana").apellido("Martínez").email("juana@email.com").build());
+        empleadoService.saveEmpleado(Empleado.builder().nombre("Ana").apellido("Ruiz").email("ana@email.com").build());
+        //when
+        List<Empleado> porPrefijo = empleadoService.buscarEmpleados("jua", 10);
+        List<Empleado> conErrata = empleadoService.buscarEmpleados("martinex", 10);
+        List<Empleado> sinResultados = empleadoService.buscarEmpleados("xyz", 10);
+        //then
+        assertThat(porPrefijo).extracting(Empleado::getNombre).containsExactly("Juan", "Juana");
+        assertThat(conErrata).extracting(Empleado::getNombre).containsExactly("Juana");
+        assertThat(sinResultados).isEmpty();
+        verify(empleadoRepository, never()).findAll();
+    }
+
+    @DisplayName("Test para quitar del indice de busqueda al eliminar")
+    @Test
+    void testBuscarEmpleadoEliminado() {
+        //given
+        given(empleadoRepository.saveAndFlush(empleado)).willAnswer(invocation -> {
+            Empleado nuevo = invocation.getArgument(0);
+            nuevo.setId(2L);
+            return nuevo;
+        });
+        given(empleadoRepository.eliminarPorId(2L)).willReturn(1);
+        empleadoService.saveEmpleado(empleado);
+        //when
+        empleadoService.deleteEmpleado(2L);
+        //then
+        assertThat(empleadoService.buscarEmpleados("pepe", 10)).isEmpty();
+    }
+
+    @DisplayName("Test para obtener empleado por email desde el indice")
+    @Test
+    void testObtenerEmpleadoPorEmail() {
+        //given
+        indiceEmail.registrar(empleado);
+        indiceEmail.marcarConstruido();
+        given(empleadoRepository.findById(2L)).willReturn(Optional.of(empleado));
+        //when
+        Optional<Empleado> encontrado = empleadoService.getEmpleadoByEmail("p12@email.com");
+        Optional<Empleado> inexistente = empleadoService.getEmpleadoByEmail("nadie@email.com");
+        //then
+        assertThat(encontrado).map(Empleado::getId).contains(2L);
+        assertThat(inexistente).isEmpty();
+        verify(empleadoRepository, never()).findByEmail(any());
+    }
+
+    @DisplayName("Test para obtener empleado por email antes de construir el indice")
+    @Test
+    void testObtenerEmpleadoPorEmailSinIndice() {
+        //given
+        given(empleadoRepository.findByEmail("p12@email.com")).willReturn(Optional.of(empleado));
+        //when
+        Optional<Empleado> encontrado = empleadoService.getEmpleadoByEmail("p12@email.com");
+        //then
+        assertThat(encontrado).isPresent();
+    }
+
+    @DisplayName("Test para actualizar el indice de email al cambiar el email")
+    @Test
+    void testActualizarEmailEnIndice() {
+        //given
+        ejecutarTransaccionesDirectamente();
+        indiceEmail.registrar(empleado);
+        given(empleadoRepository.actualizar(2L, null, null, "nuevo@email.com")).willReturn(1);
+        given(empleadoRepository.findById(2L)).willReturn(Optional.of(Empleado.builder()
+                .id(2L).nombre("Pepe").apellido("Lopez").email("nuevo@email.com").version(1L).build()));
+        //when
+        empleadoService.updateEmpleado(Empleado.builder().id(2L).email("nuevo@email.com").build());
+        //then
+        assertThat(indiceEmail.buscar("nuevo@email.com")).isEqualTo(2L);
+        assertThat(indiceEmail.buscar("p12@email.com")).isNull();
+    }
+
+    @DisplayName("Test para invalidar la cache al actualizar")
+    @Test
+    void testInvalidarCacheAlActualizar() {
+        //given
+        ejecutarTransaccionesDirectamente();
+        given(empleadoRepository.findById(2L)).willReturn(Optional.of(empleado));
+        given(empleadoRepository.actualizar(2L, "Pepe", "Lopez", "p12@email.com")).willReturn(1);
+        empleadoService.getEmpleadoById(2L);
+        //when
+        empleadoService.updateEmpleado(empleado);
+        empleadoService.getEmpleadoById(2L);
+        //then
+        verify(empleadoCache).invalidar(2L);
+        //lectura inicial, relectura tras el UPDATE y nueva carga de la cache
+        verify(empleadoRepository, times(3)).findById(2L);
+    }
+
     @DisplayName("Test para actualizar un empleado ")
     @Test
     void testActualizarEmpleado() {
         //given
-        given(empleadoRepository.save(empleado)).willReturn(empleado);
+        ejecutarTransaccionesDirectamente();
         empleado.setEmail("javier@gmail.com");
+        empleado.setVersion(3L);
+        given(empleadoRepository.actualizarConVersion(2L, "Pepe", "Lopez", "javier@gmail.com", 3L)).willReturn(1);
+        given(empleadoRepository.findById(2L)).willReturn(Optional.of(Empleado.builder()
+                .id(2L).nombre("Pepe").apellido("Lopez").email("javier@gmail.com").version(4L).build()));
         //when
-        empleadoService.updateEmpleado(empleado);
+        Empleado empleadoActualizado = empleadoService.updateEmpleado(empleado);
         //then
-        assertThat(empleado.getEmail()).isEqualTo("javier@gmail.com");
+        assertThat(empleadoActualizado.getEmail()).isEqualTo("javier@gmail.com");
+        assertThat(empleadoActualizado.getVersion()).isEqualTo(4L);
+        verify(empleadoRepository, never()).save(any(Empleado.class));
+    }
+
+    @DisplayName("Test para actualizar un empleado con version obsoleta")
+    @Test
+    void testActualizarEmpleadoVersionObsoleta() {
+        //given
+        ejecutarTransaccionesDirectamente();
+        empleado.setVersion(3L);
+        given(empleadoRepository.actualizarConVersion(2L, "Pepe", "Lopez", "p12@email.com", 3L)).willReturn(0);
+        given(empleadoRepository.existsById(2L)).willReturn(true);
+        //when - then
+        assertThrows(VersionConflictoException.class, () -> empleadoService.updateEmpleado(empleado));
+        assertThat(meterRegistry.get("empleados.servicio").tags("operacion", "actualizar", "resultado", "conflict").timer().count())
+                .isEqualTo(1);
+    }
+
+    @DisplayName("Test para actualizar un empleado inexistente")
+    @Test
+    void testActualizarEmpleadoInexistente() {
+        //given
+        ejecutarTransaccionesDirectamente();
+        given(empleadoRepository.actualizar(2L, "Pepe", "Lopez", "p12@email.com")).willReturn(0);
+        //when - then
+        assertThrows(ResourceNotFoundException.class, () -> empleadoService.updateEmpleado(empleado));
+        verify(empleadoRepository, never()).existsById(any());
     }
 
     @DisplayName("Test para eliminar un empleado ")
@@ -133,10 +588,134 @@ public class EmpleadoServiceTest {
     void testEliminarEmpleado() {
         //given
         Long empleadoId = 2L;
-        willDoNothing().given(empleadoRepository).deleteById(empleadoId);
+        given(empleadoRepository.eliminarPorId(empleadoId)).willReturn(1);
+        //when
+        boolean eliminado = empleadoService.deleteEmpleado(empleadoId);
+        //then
+        assertThat(eliminado).isTrue();
+        verify(empleadoRepository, times(1)).eliminarPorId(empleadoId);
+        verify(empleadoRepository, never()).deleteById(any());
+    }
+
+    @DisplayName("Test para cambiar la version de la coleccion al eliminar")
+    @Test
+    void testVersionColeccionCambiaAlEliminar() {
+        //given
+        given(empleadoRepository.eliminarPorId(2L)).willReturn(1);
+        String versionInicial = empleadoService.getVersionColeccion();
+        //when
+        empleadoService.deleteEmpleado(2L);
+        //then
+        assertThat(empleadoService.getVersionColeccion()).isNotEqualTo(versionInicial);
+    }
+
+    @DisplayName("Test para eliminar un empleado inexistente")
+    @Test
+    void testEliminarEmpleadoInexistente() {
+        //given
+        given(empleadoRepository.eliminarPorId(2L)).willReturn(0);
+        //when
+        boolean eliminado = empleadoService.deleteEmpleado(2L);
+        //then
+        assertThat(eliminado).isFalse();
+    }
+
+    @DisplayName("Test para mantener el total de empleados sin consultar la base de datos")
+    @Test
+    void testTotalEmpleadosSeMantieneEnMemoria() {
+        //given
+        ejecutarTransaccionesDirectamente();
+        given(empleadoRepository.count()).willReturn(5L);
+        given(empleadoRepository.eliminarPorId(2L)).willReturn(1);
+        given(empleadoRepository.eliminarPorIds(List.of(3L, 4L))).willReturn(List.of(3L, 4L));
+        empleadoService.reconciliarTotal();
+        //when
+        empleadoService.deleteEmpleado(2L);
+        empleadoService.deleteEmpleados(List.of(3L, 4L));
+        //then
+        assertThat(empleadoService.getTotalEmpleados()).isEqualTo(2L);
+        verify(empleadoRepository, times(1)).count();
+    }
+
+    @DisplayName("Test para reconciliar el total de empleados con la base de datos")
+    @Test
+    void testReconciliarTotalEmpleados() {
+        //given
+        given(empleadoRepository.eliminarPorId(2L)).willReturn(1);
+        given(empleadoRepository.count()).willReturn(3L, 8L);
+        assertThat(empleadoService.getTotalEmpleados()).isEqualTo(3L);
+        empleadoService.deleteEmpleado(2L);
+        //when
+        long total = empleadoService.reconciliarTotal();
+        //then
+        assertThat(total).isEqualTo(8L);
+        assertThat(empleadoService.getTotalEmpleados()).isEqualTo(8L);
+    }
+
+    @DisplayName("Test para descartar una reconciliacion que coincide con una escritura")
+    @Test
+    void testReconciliarTotalDescartaEscrituraConcurrente() {
+        //given
+        given(empleadoRepository.eliminarPorId(2L)).willReturn(1);
+        given(empleadoRepository.count()).willReturn(5L).willAnswer(invocation -> {
+            //una baja que empieza y termina mientras se cuenta
+            empleadoService.deleteEmpleado(2L);
+            return 9L;
+        });
+        empleadoService.reconciliarTotal();
+        //when
+        empleadoService.reconciliarTotal();
+        //then
+        assertThat(empleadoService.getTotalEmpleados()).isEqualTo(4L);
+    }
+
+    @DisplayName("Test para registrar las bajas en el feed de cambios")
+    @Test
+    void testEliminarEmpleadoRegistraCambio() {
+        //given
+        given(empleadoRepository.eliminarPorId(2L)).willReturn(1);
+        given(empleadoRepository.eliminarPorId(3L)).willReturn(0);
+        //when
+        empleadoService.deleteEmpleado(2L);
+        empleadoService.deleteEmpleado(3L);
+        //then
+        List<CambioEmpleado> cambios = registroCambios.desde(0, 10);
+        assertThat(cambios).hasSize(1);
+        assertThat(cambios.get(0).getSecuencia()).isEqualTo(1L);
+        assertThat(cambios.get(0).getTipo()).isEqualTo(CambioEmpleado.Tipo.BAJA);
+        assertThat(cambios.get(0).getId()).isEqualTo(2L);
+    }
+
+    @DisplayName("Test para rechazar una secuencia fuera de la retencion del feed de cambios")
+    @Test
+    void testCambiosCaducados() {
+        //given
+        ejecutarTransaccionesDirectamente();
+        given(empleadoRepository.eliminarPorIds(List.of(1L, 2L))).willReturn(List.of(1L, 2L));
+        given(empleadoRepository.eliminarPorIds(List.of(3L))).willReturn(List.of(3L));
+        //when
+        empleadoService.deleteEmpleados(List.of(1L, 2L, 3L));
+        //then
+        assertThat(registroCambios.desde(1, 10)).extracting(CambioEmpleado::getId).containsExactly(2L, 3L);
+        assertThrows(CambiosCaducadosException.class, () -> registroCambios.desde(0, 10));
+        assertThrows(CambiosCaducadosException.class, () -> registroCambios.desde(4, 10));
+    }
+
+    @DisplayName("Test para eliminar empleados por chunks")
+    @Test
+    void testEliminarEmpleados() {
+        //given
+        ejecutarTransaccionesDirectamente();
+        given(empleadoRepository.eliminarPorIds(List.of(1L, 2L))).willReturn(List.of(1L, 2L));
+        given(empleadoRepository.eliminarPorIds(List.of(3L))).willReturn(List.of());
         //when
-        empleadoService.deleteEmpleado(empleadoId);
+        int eliminados = empleadoService.deleteEmpleados(List.of(1L, 2L, 2L, 3L));
         //then
-        verify(empleadoRepository, times(1)).deleteById(empleadoId);
+        assertThat(eliminados).isEqualTo(2);
+        verify(empleadoRepository).eliminarPorIds(List.of(1L, 2L));
+        verify(empleadoRepository).eliminarPorIds(List.of(3L));
+        verify(empleadoCache).invalidar(3L);
+        //solo se publican las bajas de ids que existian
+        assertThat(registroCambios.desde(0, 10)).extracting(CambioEmpleado::getId).containsExactly(1L, 2L);
     }
 }
@@ -0,0 +1,38 @@
+package com.api.rest.web;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CuboTokensTest {
+
+    @DisplayName("Test para consumir la rafaga y esperar al siguiente token")
+    @Test
+    void testConsumirRafaga() {
+        //given
+        CuboTokens cubo = new CuboTokens(2, 1);
+        //when
+        long primera = cubo.consumir();
+        long segunda = cubo.consumir();
+        long tercera = cubo.consumir();
+        //then
+        assertThat(primera).isZero();
+        assertThat(segunda).isZero();
+        assertThat(tercera).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @DisplayName("Test para reponer tokens con el tiempo")
+    @Test
+    void testReponerTokens() throws InterruptedException {
+        //given
+        CuboTokens cubo = new CuboTokens(1, 100);
+        cubo.consumir();
+        //when
+        Thread.sleep(20);
+        //then
+        assertThat(cubo.consumir()).isZero();
+    }
+}
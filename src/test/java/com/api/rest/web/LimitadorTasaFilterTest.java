@@ -0,0 +1,80 @@
+package com.api.rest.web;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LimitadorTasaFilterTest {
+
+    private MeterRegistry meterRegistry;
+    private LimitadorTasaFilter limitadorTasaFilter;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", meterRegistry);
+        //una lectura y una escritura de rafaga, sin reposicion apreciable durante la prueba
+        limitadorTasaFilter = new LimitadorTasaFilter(beanFactory.getBeanProvider(MeterRegistry.class),
+                0.001, 1, 0.001, 1, 100);
+    }
+
+    private MockHttpServletResponse ejecutar(String metodo, String ip, String clienteId) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(metodo, "/api/empleados");
+        request.setRemoteAddr(ip);
+        if (clienteId != null) {
+            request.addHeader("X-Client-Id", clienteId);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        limitadorTasaFilter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @DisplayName("Test para responder 429 con Retry-After al agotar el cubo")
+    @Test
+    void testResponder429AlAgotarCubo() throws Exception {
+        //given
+        ejecutar("GET", "10.0.0.1", null);
+        //when
+        MockHttpServletResponse response = ejecutar("GET", "10.0.0.1", null);
+        //then
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isNotNull();
+        assertThat(meterRegistry.counter("empleados.admision", "clase", "lectura", "resultado", "limitada").count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.counter("empleados.admision", "clase", "lectura", "resultado", "admitida").count())
+                .isEqualTo(1);
+    }
+
+    @DisplayName("Test para no estrenar cubo cambiando de cabecera de cliente")
+    @Test
+    void testNoEstrenarCuboConOtraCabecera() throws Exception {
+        //given
+        ejecutar("GET", "10.0.0.1", "cliente-1");
+        //when
+        MockHttpServletResponse response = ejecutar("GET", "10.0.0.1", "cliente-2");
+        //then
+        assertThat(response.getStatus()).isEqualTo(429);
+    }
+
+    @DisplayName("Test para separar cubos por IP y por clase")
+    @Test
+    void testSepararCubosPorIpYClase() throws Exception {
+        //given
+        ejecutar("GET", "10.0.0.1", null);
+        //when
+        MockHttpServletResponse otraIp = ejecutar("GET", "10.0.0.2", null);
+        MockHttpServletResponse escritura = ejecutar("POST", "10.0.0.1", null);
+        //then
+        assertThat(otraIp.getStatus()).isEqualTo(200);
+        assertThat(escritura.getStatus()).isEqualTo(200);
+    }
+}